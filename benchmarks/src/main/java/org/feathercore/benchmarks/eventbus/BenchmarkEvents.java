@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.benchmarks.eventbus;
+
+import lombok.experimental.UtilityClass;
+import org.feathercore.eventbus.Event;
+import org.feathercore.eventbus.SimpleCancellableEvent;
+
+/**
+ * Events called by the benchmarks.
+ */
+@UtilityClass
+public class BenchmarkEvents {
+
+    public final class PlainEvent implements Event {
+
+        public int value;
+    }
+
+    public final class CancellableEvent extends SimpleCancellableEvent {
+
+        public int value;
+    }
+}
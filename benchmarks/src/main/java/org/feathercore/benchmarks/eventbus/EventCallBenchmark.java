@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.benchmarks.eventbus;
+
+import org.feathercore.benchmarks.eventbus.BenchmarkEvents.CancellableEvent;
+import org.feathercore.benchmarks.eventbus.BenchmarkEvents.PlainEvent;
+import org.feathercore.eventbus.Event;
+import org.feathercore.eventbus.EventManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of calling a single event depending on the number of its handlers.
+ * Multi-threaded variants measure callers contending on the same event manager.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class EventCallBenchmark {
+
+    @Param({"0", "1", "10", "100"})
+    public int handlers;
+
+    @Param({"SIMPLE", "SIMPLE_HIERARCHICAL", "SIMPLE_GENERATED", "SNAPSHOT"})
+    public EventManagerType managerType;
+
+    private EventManager<Event> eventManager;
+
+    @Setup
+    public void setUp() {
+        eventManager = managerType.create();
+        for (int i = 0; i < handlers; i++) {
+            // spread handlers over a few priorities as real listeners do
+            final byte priority = (byte) (i % 3 - 1);
+            eventManager.register(PlainEvent.class, event -> event.value++, priority);
+            eventManager.register(CancellableEvent.class, event -> event.value++, priority);
+        }
+    }
+
+    @Benchmark
+    public PlainEvent callPlain() {
+        final PlainEvent event = new PlainEvent();
+        eventManager.call(event);
+
+        return event;
+    }
+
+    @Benchmark
+    public boolean callCancellable() {
+        final CancellableEvent event = new CancellableEvent();
+        eventManager.call(event);
+
+        return event.isCancelled();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public PlainEvent callPlainConcurrently() {
+        return callPlain();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean callCancellableConcurrently() {
+        return callCancellable();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.benchmarks.eventbus;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.feathercore.eventbus.DispatchMode;
+import org.feathercore.eventbus.Event;
+import org.feathercore.eventbus.EventManager;
+import org.feathercore.eventbus.SimpleEventManager;
+import org.feathercore.eventbus.SnapshotEventManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Implementations of {@link EventManager} compared by the benchmarks.
+ */
+@RequiredArgsConstructor
+public enum EventManagerType {
+
+    SIMPLE(SimpleEventManager::new),
+    SIMPLE_HIERARCHICAL(() -> new SimpleEventManager<>(DispatchMode.HIERARCHICAL)),
+    SIMPLE_GENERATED(() -> SimpleEventManager.builder().generateInvokers(true).build()),
+    SNAPSHOT(SnapshotEventManager::new);
+
+    @Getter private final Supplier<EventManager<Event>> factory;
+
+    /**
+     * Creates a new event manager of this type.
+     *
+     * @return created event manager
+     */
+    public EventManager<Event> create() {
+        return factory.get();
+    }
+}
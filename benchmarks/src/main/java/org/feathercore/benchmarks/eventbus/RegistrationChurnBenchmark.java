@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.benchmarks.eventbus;
+
+import org.feathercore.benchmarks.eventbus.BenchmarkEvents.PlainEvent;
+import org.feathercore.eventbus.Event;
+import org.feathercore.eventbus.EventHandler;
+import org.feathercore.eventbus.EventManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of registering and unregistering a listener
+ * while the event manager already has other handlers and compiled dispatch tables,
+ * both alone and while other threads keep calling events.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Group)
+public class RegistrationChurnBenchmark {
+
+    @Param({"0", "10", "100"})
+    public int handlers;
+
+    @Param({"SIMPLE", "SNAPSHOT"})
+    public EventManagerType managerType;
+
+    private EventManager<Event> eventManager;
+
+    @Setup
+    public void setUp() {
+        eventManager = managerType.create();
+        for (int i = 0; i < handlers; i++) {
+            eventManager.register(PlainEvent.class, event -> event.value++, (byte) (i % 3 - 1));
+        }
+        // make the manager compile handlers of the event
+        eventManager.call(new PlainEvent());
+    }
+
+    @Benchmark
+    @Group("churn")
+    public Listener registerAndUnregister() {
+        final Listener listener = new Listener();
+        eventManager.register(listener);
+        eventManager.unregister(listener);
+
+        return listener;
+    }
+
+    @Benchmark
+    @Group("churnUnderLoad")
+    @GroupThreads(1)
+    public Listener registerAndUnregisterUnderLoad() {
+        return registerAndUnregister();
+    }
+
+    @Benchmark
+    @Group("churnUnderLoad")
+    @GroupThreads(3)
+    public PlainEvent callUnderChurn() {
+        final PlainEvent event = new PlainEvent();
+        eventManager.call(event);
+
+        return event;
+    }
+
+    public static class Listener {
+
+        @EventHandler
+        public void onPlainEvent(final PlainEvent event) {
+            event.value++;
+        }
+    }
+}
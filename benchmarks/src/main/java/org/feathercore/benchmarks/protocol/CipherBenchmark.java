@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.benchmarks.protocol;
+
+import org.feathercore.protocol.netty.cipher.CipherCodec;
+import org.feathercore.protocol.netty.cipher.CipherCodec.StreamCipher;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a single core encrypting frames in place
+ * by the {@link CipherCodec#getDefault() JCE} codec.
+ * The {@code bytes} secondary result is the number of encrypted bytes per second.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CipherBenchmark {
+
+    @Param({"64", "1024", "65536"})
+    public int frameSize;
+
+    private StreamCipher cipher;
+    private ByteBuffer frame;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        final byte[] key = new byte[16];
+        ThreadLocalRandom.current().nextBytes(key);
+        final SecretKey secretKey = new SecretKeySpec(key, "AES");
+        cipher = CipherCodec.getDefault().newEncryptor(secretKey);
+
+        final byte[] payload = new byte[frameSize];
+        ThreadLocalRandom.current().nextBytes(payload);
+        frame = ByteBuffer.allocateDirect(frameSize);
+        frame.put(payload).flip();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cipher.close();
+    }
+
+    @Benchmark
+    public ByteBuffer encrypt(final EncryptedBytes counter) throws ShortBufferException {
+        cipher.update(frame.duplicate(), frame.duplicate());
+        counter.bytes += frameSize;
+        return frame;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class EncryptedBytes {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+}
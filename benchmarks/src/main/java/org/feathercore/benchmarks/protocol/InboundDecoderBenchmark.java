@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.benchmarks.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import lombok.RequiredArgsConstructor;
+import org.feathercore.protocol.netty.codec.InboundDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares splitting inbound bytes into frames by {@link InboundDecoder} and {@link LegacyInboundDecoder}
+ * when each frame arrives either as a single segment or split into many of them.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class InboundDecoderBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int frameSize;
+
+    @Param({"1", "16"})
+    public int segments;
+
+    @Param({"CURRENT", "LEGACY"})
+    public DecoderType decoderType;
+
+    private EmbeddedChannel channel;
+    private ByteBuf[] segmentBuffers;
+
+    @Setup
+    public void setUp() {
+        final ByteBuf frame = Unpooled.directBuffer(frameSize + 3);
+        int length = frameSize;
+        while ((length & ~0x7F) != 0) {
+            frame.writeByte(length & 0x7F | 0x80);
+            length >>>= 7;
+        }
+        frame.writeByte(length);
+
+        final byte[] payload = new byte[frameSize];
+        ThreadLocalRandom.current().nextBytes(payload);
+        frame.writeBytes(payload);
+
+        segmentBuffers = new ByteBuf[segments];
+        final int segmentSize = (frame.readableBytes() + segments - 1) / segments;
+        for (int i = 0; i < segments; i++) {
+            segmentBuffers[i] = frame.readRetainedSlice(Math.min(segmentSize, frame.readableBytes()));
+        }
+        frame.release();
+
+        channel = new EmbeddedChannel(decoderType.create());
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+        for (final ByteBuf segment : segmentBuffers) {
+            segment.release();
+        }
+    }
+
+    @Benchmark
+    public int decode() {
+        for (final ByteBuf segment : segmentBuffers) {
+            channel.writeInbound(segment.retainedDuplicate());
+        }
+
+        final ByteBuf frame = channel.readInbound();
+        try {
+            return frame.readableBytes();
+        } finally {
+            frame.release();
+        }
+    }
+
+    @RequiredArgsConstructor
+    public enum DecoderType {
+
+        CURRENT(InboundDecoder::new),
+        LEGACY(LegacyInboundDecoder::new);
+
+        private final Supplier<ChannelHandler> factory;
+
+        public ChannelHandler create() {
+            return factory.get();
+        }
+    }
+}
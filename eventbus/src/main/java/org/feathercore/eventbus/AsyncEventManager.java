@@ -0,0 +1,222 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * A manager for handling events off the caller's thread.
+ * Events are dispatched by the underlying event manager using the executor configured for the event's type
+ * (or the default one if there is none) so that slow handlers do not stall the calling thread.
+ *
+ * @apiNote {@link CancellableEvent}s are always called synchronously as their callers depend on the result of handling,
+ * so are {@link RecyclableEvent}s as their callers reuse them right after the call
+ *
+ * @param <E> super-type of events handled
+ */
+@Builder
+@ToString
+@FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+public class AsyncEventManager<E extends Event> implements EventManager<E> {
+
+    /**
+     * Event manager actually storing and calling the handlers
+     */
+    @NonNull @Builder.Default EventManager<E> eventManager = new SimpleEventManager<>();
+
+    /**
+     * Executor used for events whose type has no executor configured
+     */
+    @NonNull @Builder.Default Executor defaultExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * Executors configured for exact event types
+     */
+    @NonNull @Singular Map<Class<? extends E>, Executor> executors;
+
+    @Override
+    public <T extends E> void register(@NonNull final Object owner, @NonNull final Class<T> eventType,
+                                       @NonNull final Consumer<T> handler, final byte priority) {
+        eventManager.register(owner, eventType, handler, priority);
+    }
+
+    @Override
+    public void register(@NonNull final Object owner, @NonNull final Object listener) {
+        eventManager.register(owner, listener);
+    }
+
+    @Override
+    public void unregister(@NonNull final Object listener) {
+        eventManager.unregister(listener);
+    }
+
+    @Override
+    public void unregisterAll(@NonNull final Object owner) {
+        eventManager.unregisterAll(owner);
+    }
+
+    @Override
+    public boolean hasListeners(@NonNull final Class<? extends E> eventType) {
+        return eventManager.hasListeners(eventType);
+    }
+
+    /**
+     * Calls the specified event asynchronously unless it is a {@link CancellableEvent} or a {@link RecyclableEvent}.
+     * Exceptions thrown by handlers of asynchronously called events
+     * are passed to the uncaught exception handler of the executing thread.
+     *
+     * @param event event to call
+     * @param <T> exact type of the event to call
+     */
+    @Override
+    public <T extends E> void call(@NotNull final T event) {
+        if (isCalledSynchronously(event)) {
+            eventManager.call(event);
+            return;
+        }
+
+        execute(getExecutor(event.getClass()), () -> eventManager.call(event));
+    }
+
+    /**
+     * Calls the specified event asynchronously unless it is a {@link CancellableEvent} or a {@link RecyclableEvent}.
+     *
+     * @param event event to call
+     * @param <T> exact type of the event to call
+     * @return future completed with the called event once all of its handlers are called
+     * or completed exceptionally with the exception thrown by any handler
+     */
+    public <T extends E> CompletableFuture<T> callAsync(@NonNull final T event) {
+        if (isCalledSynchronously(event)) {
+            val future = new CompletableFuture<T>();
+            try {
+                eventManager.call(event);
+                future.complete(event);
+            } catch (final Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            return future;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            eventManager.call(event);
+
+            return event;
+        }, getExecutor(event.getClass()));
+    }
+
+    /**
+     * Calls all the specified events splitting them into batches of consecutive events of the same exact type,
+     * each of which is {@link #callBatch(Class, Event[]) called} as a single asynchronous task.
+     * Batches handled by different executors may be called in any order relative to each other.
+     *
+     * @param events events to call
+     * @param <T> super-type of the events to call
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends E> void callAll(@NonNull final Collection<? extends T> events) {
+        val batch = events.toArray();
+
+        int start = 0;
+        while (start < batch.length) {
+            val eventType = (Class<T>) batch[start].getClass();
+            int end = start + 1;
+            while (end < batch.length && batch[end].getClass() == eventType) {
+                end++;
+            }
+
+            val typedBatch = (T[]) Array.newInstance(eventType, end - start);
+            System.arraycopy(batch, start, typedBatch, 0, typedBatch.length);
+            callBatch(eventType, typedBatch);
+            start = end;
+        }
+    }
+
+    /**
+     * Calls all the specified events of the same exact type as a single asynchronous task
+     * unless they are {@link CancellableEvent}s or {@link RecyclableEvent}s.
+     * Exceptions thrown by handlers of asynchronously called events
+     * are passed to the uncaught exception handler of the executing thread.
+     *
+     * @param eventType exact type of all the events
+     * @param events events to call
+     * @param <T> exact type of the events to call
+     */
+    @Override
+    public <T extends E> void callBatch(@NonNull final Class<T> eventType, @NonNull final T[] events) {
+        if (CancellableEvent.class.isAssignableFrom(eventType) || RecyclableEvent.class.isAssignableFrom(eventType)) {
+            eventManager.callBatch(eventType, events);
+            return;
+        }
+
+        execute(getExecutor(eventType), () -> eventManager.callBatch(eventType, events));
+    }
+
+    /**
+     * Executes the task by the executor passing the exceptions thrown by it
+     * to the uncaught exception handler of the executing thread.
+     * Exceptions are caught by the task itself so that they are never reported by the caller's thread.
+     *
+     * @param executor executor to execute the task by
+     * @param task task to execute
+     */
+    protected void execute(@NonNull final Executor executor, @NonNull final Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (final Throwable t) {
+                val thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            }
+        });
+    }
+
+    /**
+     * Checks whether the specified event should be called on the caller's thread.
+     *
+     * @param event event to call
+     * @return {@code true} if the event should be called synchronously and {@code false} otherwise
+     */
+    protected boolean isCalledSynchronously(@NonNull final Event event) {
+        return event instanceof CancellableEvent || event instanceof RecyclableEvent;
+    }
+
+    /**
+     * Gets the executor used for calling events of the specified exact type.
+     *
+     * @param eventType exact type of the event
+     * @return executor for the specified event type
+     */
+    @NotNull
+    public Executor getExecutor(@NonNull final Class<?> eventType) {
+        val executor = executors.get(eventType);
+
+        return executor == null ? defaultExecutor : executor;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Event handler capable of handling a whole batch of events at once
+ * when they are called via {@link EventManager#callAll(java.util.Collection)}
+ * or {@link EventManager#callBatch(Class, Event[])}.
+ *
+ * @param <T> type of handled events
+ */
+@FunctionalInterface
+public interface BatchConsumer<T> extends Consumer<T> {
+
+    /**
+     * Handles the batch of events.
+     *
+     * @param events unmodifiable list of events of the same exact type
+     */
+    void acceptBatch(@NonNull List<T> events);
+
+    /**
+     * Handles the single event as a batch of one.
+     *
+     * @param event event to handle
+     */
+    @Override
+    default void accept(final T event) {
+        acceptBatch(Collections.singletonList(event));
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+/**
+ * Strategy of matching called events against registered handlers used by {@link SimpleEventManager}.
+ */
+public enum DispatchMode {
+
+    /**
+     * Only handlers registered for the exact class of the called event are invoked.
+     */
+    EXACT,
+
+    /**
+     * Handlers registered for the exact class of the called event
+     * as well as for any of its super-classes and interfaces are invoked.
+     */
+    HIERARCHICAL
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generator of event invokers: classes calling all the specified handle-methods of a listener directly
+ * so that a single {@link Consumer} is used for each (listener, event type) pair
+ * instead of a {@link java.lang.invoke.LambdaMetafactory LambdaMetafactory}-created one for each method.
+ * This only merges the methods of a single listener: events are still dispatched
+ * through {@link Consumer#accept(Object)} whose call site stays megamorphic
+ * once an event has handlers of different classes.
+ * <p>
+ * Generated classes are defined in the package of the listener
+ * thus they are unable to call its private methods which should be handled some other way.
+ */
+@UtilityClass
+public class EventInvokerGenerator {
+
+    private final String CONSUMER_INTERNAL_NAME = Type.getInternalName(Consumer.class),
+            OBJECT_INTERNAL_NAME = Type.getInternalName(Object.class),
+            LISTENER_FIELD_NAME = "listener";
+
+    private final AtomicInteger GENERATED_CLASSES_COUNTER = new AtomicInteger();
+
+    /**
+     * {@code Lookup#defineClass(byte[])} which is only available since Java 9
+     */
+    @Nullable private final Method LOOKUP_DEFINE_CLASS;
+
+    /**
+     * {@code ClassLoader#defineClass(String, byte[], int, int, ProtectionDomain)} used on Java 8
+     */
+    @Nullable private final Method CLASS_LOADER_DEFINE_CLASS;
+
+    /**
+     * Way of defining generated classes available in the current runtime
+     */
+    @Nullable private final ClassDefinition CLASS_DEFINITION;
+
+    /**
+     * Constructors of invokers already generated for listener classes by the methods they call
+     */
+    private final ClassValue<Map<List<Method>, MethodHandle>> INVOKER_CONSTRUCTORS
+            = new ClassValue<Map<List<Method>, MethodHandle>>() {
+        @Override
+        protected Map<List<Method>, MethodHandle> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    static {
+        Method lookupDefineClass = null, classLoaderDefineClass = null;
+        try {
+            lookupDefineClass = Lookup.class.getMethod("defineClass", byte[].class);
+        } catch (final NoSuchMethodException e) {
+            try {
+                classLoaderDefineClass = ClassLoader.class.getDeclaredMethod(
+                        "defineClass", String.class, byte[].class, int.class, int.class,
+                        java.security.ProtectionDomain.class
+                );
+                classLoaderDefineClass.setAccessible(true);
+            } catch (final NoSuchMethodException | SecurityException ignored) {}
+        }
+
+        LOOKUP_DEFINE_CLASS = lookupDefineClass;
+        CLASS_LOADER_DEFINE_CLASS = classLoaderDefineClass;
+        CLASS_DEFINITION = lookupDefineClass != null ? ClassDefinition.LOOKUP
+                : classLoaderDefineClass != null ? ClassDefinition.CLASS_LOADER : null;
+    }
+
+    /**
+     * Ways of defining generated classes in the package of the listener.
+     */
+    enum ClassDefinition {
+        /**
+         * Via {@code Lookup#defineClass(byte[])}
+         */
+        LOOKUP,
+        /**
+         * Via {@code ClassLoader#defineClass(String, byte[], int, int, ProtectionDomain)}
+         */
+        CLASS_LOADER;
+
+        /**
+         * Checks if generated classes can be defined this way in the current runtime.
+         *
+         * @return {@code true} if generated classes can be defined this way and {@code false} otherwise
+         */
+        boolean isAvailable() {
+            return (this == LOOKUP ? LOOKUP_DEFINE_CLASS : CLASS_LOADER_DEFINE_CLASS) != null;
+        }
+    }
+
+    /**
+     * Checks if the given handle-method can be called by a generated invoker.
+     *
+     * @param method handle-method accepting the event as its only parameter
+     * @return {@code true} if the method can be called by a generated invoker and {@code false} otherwise
+     */
+    public boolean canInvoke(@NonNull final Method method) {
+        if (CLASS_DEFINITION == null) {
+            return false;
+        }
+
+        val modifiers = method.getModifiers();
+        if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)) {
+            return false;
+        }
+
+        val listenerClass = method.getDeclaringClass();
+        if (listenerClass.getClassLoader() == null || listenerClass.isInterface()) {
+            return false;
+        }
+
+        val eventType = method.getParameterTypes()[0];
+
+        return Modifier.isPublic(eventType.getModifiers())
+                || eventType.getClassLoader() == listenerClass.getClassLoader()
+                && getPackageName(eventType).equals(getPackageName(listenerClass));
+    }
+
+    private String getPackageName(@NonNull final Class<?> type) {
+        val name = type.getName();
+        val lastDot = name.lastIndexOf('.');
+
+        return lastDot == -1 ? "" : name.substring(0, lastDot);
+    }
+
+    /**
+     * Creates an invoker calling all the given methods of the listener in the specified order.
+     *
+     * @param listener object whose methods should be called
+     * @param methods methods to call all accepting the same event type,
+     * each of them should be {@link #canInvoke(Method) invokable}
+     * @param <E> type of the event
+     * @return consumer of events calling all the given methods
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event> Consumer<E> generate(@NonNull final Object listener, @NonNull final List<Method> methods) {
+        val constructor = INVOKER_CONSTRUCTORS.get(listener.getClass())
+                .computeIfAbsent(methods, key -> generateInvokerClass(listener.getClass(), key, CLASS_DEFINITION));
+        try {
+            return (Consumer<E>) constructor.invoke(listener);
+        } catch (final Throwable t) {
+            throw new RuntimeException("Could not create event invoker", t);
+        }
+    }
+
+    /**
+     * Generates an invoker class calling all the given methods of the listener in the specified order.
+     *
+     * @param listenerClass class of the listener
+     * @param methods methods to call all accepting the same event type
+     * @param definition way of defining the generated class which should be {@link ClassDefinition#isAvailable()}
+     * @return constructor of the invoker accepting the listener
+     */
+    MethodHandle generateInvokerClass(@NonNull final Class<?> listenerClass, @NonNull final List<Method> methods,
+                                      @NonNull final ClassDefinition definition) {
+        val name = listenerClass.getName() + "$$EventInvoker$" + GENERATED_CLASSES_COUNTER.incrementAndGet();
+        val internalName = name.replace('.', '/');
+        val listenerDescriptor = Type.getDescriptor(listenerClass);
+
+        val writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(
+                V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null,
+                OBJECT_INTERNAL_NAME, new String[]{CONSUMER_INTERNAL_NAME}
+        );
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, LISTENER_FIELD_NAME, listenerDescriptor, null, null).visitEnd();
+
+        // constructor storing the listener
+        MethodVisitor method = writer.visitMethod(
+                ACC_PUBLIC, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(listenerClass)), null, null
+        );
+        method.visitCode();
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKESPECIAL, OBJECT_INTERNAL_NAME, "<init>", "()V", false);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitFieldInsn(PUTFIELD, internalName, LISTENER_FIELD_NAME, listenerDescriptor);
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        // Consumer#accept(Object) calling all the methods
+        method = writer.visitMethod(ACC_PUBLIC, "accept", "(Ljava/lang/Object;)V", null, null);
+        method.visitCode();
+        for (val handleMethod : methods) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitFieldInsn(GETFIELD, internalName, LISTENER_FIELD_NAME, listenerDescriptor);
+            method.visitVarInsn(ALOAD, 1);
+            method.visitTypeInsn(CHECKCAST, Type.getInternalName(handleMethod.getParameterTypes()[0]));
+            method.visitMethodInsn(
+                    INVOKEVIRTUAL, Type.getInternalName(listenerClass), handleMethod.getName(),
+                    Type.getMethodDescriptor(handleMethod), false
+            );
+            switch (Type.getReturnType(handleMethod).getSize()) {
+                case 1: {
+                    method.visitInsn(POP);
+                    break;
+                }
+                case 2: {
+                    method.visitInsn(POP2);
+                    break;
+                }
+            }
+        }
+        method.visitInsn(RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+
+        try {
+            val bytes = writer.toByteArray();
+            final Class<?> invokerClass;
+            if (definition == ClassDefinition.LOOKUP) {
+                //noinspection ConstantConditions: checked by ClassDefinition#isAvailable()
+                invokerClass = (Class<?>) LOOKUP_DEFINE_CLASS
+                        .invoke(SimpleEventManager.constructLookup(listenerClass), (Object) bytes);
+            } else {
+                //noinspection ConstantConditions: checked by ClassDefinition#isAvailable()
+                invokerClass = (Class<?>) CLASS_LOADER_DEFINE_CLASS.invoke(
+                        listenerClass.getClassLoader(), name, bytes, 0, bytes.length,
+                        listenerClass.getProtectionDomain()
+                );
+            }
+
+            return MethodHandles.publicLookup().findConstructor(
+                    invokerClass, MethodType.methodType(void.class, listenerClass)
+            ).asType(MethodType.methodType(Consumer.class, Object.class));
+        } catch (final Throwable t) {
+            throw new RuntimeException("Could not generate event invoker for " + listenerClass, t);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.feathercore.eventbus;
 import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
 import java.util.function.Consumer;
 
 /**
@@ -38,17 +39,33 @@ public interface EventManager<E extends Event> {
     }
 
     /**
-     * Registers an event-handler for the specified event type.
+     * Registers an event-handler for the specified event type on behalf of the specified owner.
      *
+     * @param owner owner of the handler which may be used for unregistering it via {@link #unregisterAll(Object)}
      * @param eventType type of the event
      * @param handler handler of the event
      * @param priority event priority (higher priority means latter call)
      *
      * @param <T> generic type of the event
      */
-    <T extends E> void register(@NonNull Class<T> eventType,
+    <T extends E> void register(@NonNull Object owner, @NonNull Class<T> eventType,
                                 @NonNull Consumer<T> handler, byte priority);
 
+    /**
+     * Registers an event-handler for the specified event type.
+     * The handler itself is used as its owner.
+     *
+     * @param eventType type of the event
+     * @param handler handler of the event
+     * @param priority event priority (higher priority means latter call)
+     *
+     * @param <T> generic type of the event
+     */
+    default <T extends E> void register(@NonNull Class<T> eventType,
+                                        @NonNull Consumer<T> handler, byte priority) {
+        register(handler, eventType, handler, priority);
+    }
+
     /**
      * Registers an event-handler for the specified event type using <i>normal</i> priority.
      *
@@ -61,14 +78,61 @@ public interface EventManager<E extends Event> {
         register(eventType, handler, (byte) 0);
     }
 
+    /**
+     * Registers all methods of this object annotated as {@link EventHandler}
+     * as listeners using the annotations configuration on behalf of the specified owner.
+     *
+     * @param owner owner of the listener which may be used for unregistering it via {@link #unregisterAll(Object)}
+     * @param listener object whose annotated methods should be registered as listeners
+     * and who should be used for calling them
+     */
+    void register(@NonNull Object owner, @NonNull Object listener);
+
     /**
      * Registers all methods of this object annotated as {@link EventHandler}
      * as listeners using the annotations configuration.
+     * The listener itself is used as its owner.
      *
      * @param listener object whose annotated methods should be registered as listeners
      * and who should be used for calling them
      */
-    void register(@NonNull Object listener);
+    default void register(@NonNull Object listener) {
+        register(listener, listener);
+    }
+
+    /**
+     * Unregisters all handlers of the specified listener
+     * (either registered via {@link #register(Object, Object)} or directly as a {@link Consumer}).
+     *
+     * @param listener listener whose handlers should be unregistered
+     *
+     * @apiNote removal is not constant-time: {@link SimpleEventManager} copies the handler list
+     * of each affected event type and rebuilds the compiled dispatch tables affected by it
+     * so the cost is linear in the number of handlers of the affected event types
+     * plus the number of compiled dispatch tables, {@link SnapshotEventManager} copies the whole snapshot
+     */
+    void unregister(@NonNull Object listener);
+
+    /**
+     * Unregisters all handlers registered on behalf of the specified owner.
+     *
+     * @param owner owner whose handlers should be unregistered
+     *
+     * @apiNote removal costs the same as that of {@link #unregister(Object)}
+     */
+    void unregisterAll(@NonNull Object owner);
+
+    /**
+     * Checks whether calling an event of the specified exact type would invoke any handler.
+     * This is intended to be cheap enough to be checked before even creating events on hot paths.
+     *
+     * @param eventType exact type of the event
+     * @return {@code true} if there are handlers for the specified event type and {@code false} otherwise,
+     * implementations which can't tell it should return {@code true}
+     */
+    default boolean hasListeners(@NonNull Class<? extends E> eventType) {
+        return true;
+    }
 
     /**
      * Calls the specified event.
@@ -78,6 +142,35 @@ public interface EventManager<E extends Event> {
      */
     <T extends E> void call(@NotNull T event);
 
+    /**
+     * Calls all the specified events in their order.
+     * Implementations may call each handler for a batch of events of the same type
+     * (so that {@link BatchConsumer}s get the whole batch) instead of calling all handlers for each event.
+     *
+     * @param events events to call
+     * @param <T> super-type of the events to call
+     */
+    default <T extends E> void callAll(@NonNull Collection<? extends T> events) {
+        for (final T event : events) {
+            call(event);
+        }
+    }
+
+    /**
+     * Calls all the specified events of the same exact type.
+     * Implementations may call each handler for the whole batch of events
+     * (so that {@link BatchConsumer}s get the whole batch) instead of calling all handlers for each event.
+     *
+     * @param eventType exact type of all the events
+     * @param events events to call
+     * @param <T> exact type of the events to call
+     */
+    default <T extends E> void callBatch(@NonNull Class<T> eventType, @NonNull T[] events) {
+        for (final T event : events) {
+            call(event);
+        }
+    }
+
     final class GlobalContainer {
 
         private static final EventManager<Event> INSTANCE = new SimpleEventManager<>();
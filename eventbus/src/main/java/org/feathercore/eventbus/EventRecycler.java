@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+
+/**
+ * Light-weight per-thread pool of {@link RecyclableEvent}s.
+ * Each thread has its own pool so that neither {@link #get()} nor {@link Handle#recycle(RecyclableEvent)}
+ * require any synchronization, events recycled by a thread other than the one which created them are discarded.
+ *
+ * @param <T> type of pooled events
+ */
+@FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+public abstract class EventRecycler<T extends RecyclableEvent> {
+
+    private static final int DEFAULT_MAX_CAPACITY_PER_THREAD = 256;
+
+    int maxCapacityPerThread;
+    ThreadLocal<ArrayDeque<Handle<T>>> pools = ThreadLocal.withInitial(ArrayDeque::new);
+
+    protected EventRecycler(final int maxCapacityPerThread) {
+        this.maxCapacityPerThread = maxCapacityPerThread;
+    }
+
+    protected EventRecycler() {
+        this(DEFAULT_MAX_CAPACITY_PER_THREAD);
+    }
+
+    /**
+     * Creates a new event bound to the specified handle.
+     *
+     * @param handle handle which should be used by the event to recycle itself
+     * @return created event
+     */
+    protected abstract T newObject(@NonNull Handle<T> handle);
+
+    /**
+     * Gets an event from the current thread's pool or creates a new one if the pool is empty.
+     *
+     * @return event which should be recycled once it is no longer used
+     */
+    @NotNull
+    public T get() {
+        val pool = pools.get();
+        Handle<T> handle = pool.pollLast();
+        if (handle == null) {
+            handle = new Handle<>(Thread.currentThread(), pool, maxCapacityPerThread);
+            handle.value = newObject(handle);
+        } else {
+            handle.recycled = false;
+        }
+
+        return handle.value;
+    }
+
+    /**
+     * Handle of the pooled event used for returning it to its pool.
+     *
+     * @param <T> type of pooled event
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    public static final class Handle<T extends RecyclableEvent> {
+
+        Thread thread;
+        ArrayDeque<Handle<T>> pool;
+        int maxCapacity;
+        @NonFinal T value;
+        @NonFinal boolean recycled;
+
+        /**
+         * Returns the event to the pool of the thread which has created it.
+         *
+         * @param event event bound to this handle which has already been reset
+         * @throws IllegalStateException if the event is not bound to this handle or has already been recycled
+         */
+        public void recycle(@NonNull final T event) {
+            if (event != value) {
+                throw new IllegalStateException("Event is not bound to this handle");
+            }
+            if (recycled) {
+                throw new IllegalStateException("Event has already been recycled");
+            }
+            recycled = true;
+
+            // pools are not thread-safe so events recycled by other threads are simply left for GC
+            if (Thread.currentThread() == thread && pool.size() < maxCapacity) {
+                pool.addLast(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+/**
+ * {@link Event} whose instances are reused (commonly by an {@link EventRecycler}) instead of being allocated
+ * for each call which is intended for events called with high frequency.
+ *
+ * @apiNote handlers should not retain the event (nor pass it to other threads) after they return
+ * as it gets recycled by its caller right after being called and so may then be reset and reused for another call;
+ * any data needed later should be copied from the event.
+ */
+public interface RecyclableEvent extends Event {
+
+    /**
+     * Resets this event's state and returns it to its pool so that it can be reused.
+     * This should only be called by the caller of the event once it has been called.
+     */
+    void recycle();
+}
@@ -19,59 +19,164 @@ package org.feathercore.eventbus;
 import lombok.*;
 import lombok.experimental.Delegate;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Created by k.shandurenko on 09/04/2019
  */
-@RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
 public class SimpleEventManager<E extends Event> implements EventManager<E> {
 
-    @NonNull Map<Class<? extends E>, HandlerQueue<? extends E>> handlers;
+    /**
+     * {@code MethodHandles#privateLookupIn(Class, Lookup)} which is only available since Java 9
+     */
+    @Nullable private static final Method PRIVATE_LOOKUP_IN;
+
+    static {
+        Method privateLookupIn;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+        } catch (final NoSuchMethodException e) {
+            privateLookupIn = null;
+        }
+
+        PRIVATE_LOOKUP_IN = privateLookupIn;
+    }
+
+    @NonNull Map<Class<? extends E>, HandlerList<? extends E>> handlers;
+    @NonNull DispatchMode dispatchMode;
+
+    /**
+     * Whether {@link EventInvokerGenerator generated invokers} should be used for listeners' methods
+     * (only applicable to strongly referenced listeners), this merges the methods of each listener
+     * but does not make the call site of {@link #call(Event)} monomorphic
+     */
+    boolean generateInvokers;
+
+    /**
+     * Whether listeners and owners should be referenced weakly so that they can be garbage collected
+     * without being unregistered explicitly, this does not apply to handlers registered as {@link Consumer}s
+     */
+    boolean weakListeners;
+
+    /**
+     * Dispatch tables compiled for each called event class, {@link ClassValue} is used
+     * so that {@link #call(Event)} does not have to perform any map lookup
+     */
+    ClassValue<DispatchTable<E>> dispatchTables = new ClassValue<DispatchTable<E>>() {
+        @Override
+        protected DispatchTable<E> computeValue(final Class<?> type) {
+            return getDispatchTable(type);
+        }
+    };
+
+    /**
+     * All dispatch tables compiled by now used to rebuild them whenever new handlers get registered,
+     * event classes are referenced weakly so that those of unloaded modules can be garbage collected
+     */
+    Map<Class<?>, DispatchTable<E>> compiledDispatchTables = new WeakHashMap<>();
+
+    /**
+     * Registrations of all listeners (including handlers registered directly) used for their unregistration
+     */
+    Map<ListenerKey, Registrations<E>> listeners = new HashMap<>();
+
+    /**
+     * Registrations of all handlers by their owners used for their unregistration
+     */
+    Map<ListenerKey, Registrations<E>> owners = new HashMap<>();
+
+    /**
+     * Queue of weakly referenced listeners and owners collected by now
+     */
+    ReferenceQueue<Object> collectedListeners = new ReferenceQueue<>();
+
+    @NonFinal long registrations;
 
     public SimpleEventManager() {
-        this(new ConcurrentHashMap<>());
+        this(DispatchMode.EXACT);
+    }
+
+    public SimpleEventManager(@NonNull final DispatchMode dispatchMode) {
+        this(new ConcurrentHashMap<>(), dispatchMode);
+    }
+
+    public SimpleEventManager(@NonNull final Map<Class<? extends E>, HandlerList<? extends E>> handlers) {
+        this(handlers, DispatchMode.EXACT);
+    }
+
+    public SimpleEventManager(@NonNull final Map<Class<? extends E>, HandlerList<? extends E>> handlers,
+                              @NonNull final DispatchMode dispatchMode) {
+        this(handlers, dispatchMode, false, false);
+    }
+
+    @Builder
+    protected SimpleEventManager(@Nullable final Map<Class<? extends E>, HandlerList<? extends E>> handlers,
+                                 @Nullable final DispatchMode dispatchMode, final boolean generateInvokers,
+                                 final boolean weakListeners) {
+        this.handlers = handlers == null ? new ConcurrentHashMap<>() : handlers;
+        this.dispatchMode = dispatchMode == null ? DispatchMode.EXACT : dispatchMode;
+        this.generateInvokers = generateInvokers;
+        this.weakListeners = weakListeners;
     }
 
     @NotNull
     @SuppressWarnings("unchecked")
-    protected <T extends E> HandlerQueue<T> getHandlerQueue(@NonNull final Class<T> eventType) {
-        return (HandlerQueue<T>) handlers.computeIfAbsent(eventType, type -> new HandlerQueue<>());
+    protected <T extends E> HandlerList<T> getHandlerList(@NonNull final Class<T> eventType) {
+        return (HandlerList<T>) handlers.computeIfAbsent(eventType, type -> new HandlerList<>());
     }
 
     @Nullable
     @SuppressWarnings("unchecked")
-    protected <T extends E> HandlerQueue<E> getNullableHandlerQueue(@NonNull final Class<T> eventType) {
-        return (HandlerQueue<E>) handlers.get(eventType);
+    protected <T extends E> HandlerList<E> getNullableHandlerList(@NonNull final Class<T> eventType) {
+        return (HandlerList<E>) handlers.get(eventType);
     }
 
     @Override
-    public <T extends E> void register(@NonNull final Class<T> eventType,
+    @Synchronized
+    public <T extends E> void register(@NonNull final Object owner, @NonNull final Class<T> eventType,
                                        @NonNull final Consumer<T> handler, final byte priority) {
-        getHandlerQueue(eventType).add(new Handler<>(handler, priority));
+        purgeCollectedListeners();
+
+        registerHandler(getRegistrations(owners, owner), getRegistrations(listeners, handler),
+                eventType, handler, priority);
     }
 
     /**
      * Register given listener (all events handling method within it).
+     * If {@link #generateInvokers} is enabled then all methods of the listener which handle the same event
+     * with the same priority are called by a single {@link EventInvokerGenerator generated invoker}.
      *
+     * @param owner
      * @param listener
      */
     @Override
+    @Synchronized
     @SuppressWarnings("unchecked")
-    public void register(@NonNull final Object listener) {
+    public void register(@NonNull final Object owner, @NonNull final Object listener) {
+        purgeCollectedListeners();
+
         val listenerClass = listener.getClass();
+        // methods to be called by generated invokers grouped by event type and priority
+        val invokedMethods = new HashMap<Map.Entry<Class<?>, Byte>, List<Method>>();
+        // handlers (single methods or groups of invoked methods) in the order of their first methods
+        val units = new ArrayList<Object>();
         for (val method : listenerClass.getDeclaredMethods()) {
             if (method.getParameterCount() != 1 || !method.isAnnotationPresent(EventHandler.class)) {
                 continue;
@@ -82,28 +187,329 @@ public class SimpleEventManager<E extends Event> implements EventManager<E> {
                 continue;
             }
 
-            EventHandler annotation = method.getAnnotation(EventHandler.class);
-            register((Class<? extends E>) parameterType, constructConsumer(listener, method), annotation.priority());
+            if (!weakListeners && generateInvokers && EventInvokerGenerator.canInvoke(method)) {
+                val group = invokedMethods.computeIfAbsent(
+                        new AbstractMap.SimpleImmutableEntry<>(
+                                parameterType, method.getAnnotation(EventHandler.class).priority()
+                        ),
+                        key -> new ArrayList<>()
+                );
+                if (group.isEmpty()) {
+                    units.add(group);
+                }
+                group.add(method);
+            } else {
+                units.add(method);
+            }
         }
+
+        if (units.isEmpty()) {
+            // registrations are only created for listeners having handlers so that nothing is retained otherwise
+            return;
+        }
+
+        val ownerRegistrations = getRegistrations(owners, owner);
+        val listenerRegistrations = getRegistrations(listeners, listener);
+        for (val unit : units) {
+            final Method method = unit instanceof Method ? (Method) unit : ((List<Method>) unit).get(0);
+            val eventType = (Class<? extends E>) method.getParameterTypes()[0];
+            val priority = method.getAnnotation(EventHandler.class).priority();
+
+            final Consumer<E> consumer;
+            if (unit instanceof List) {
+                consumer = EventInvokerGenerator.generate(listener, (List<Method>) unit);
+            } else if (weakListeners) {
+                consumer = new WeakListenerConsumer<>(listenerRegistrations.key, constructInvoker(method));
+            } else {
+                consumer = constructConsumer(listener, method);
+            }
+
+            registerHandler(ownerRegistrations, listenerRegistrations, eventType, consumer, priority);
+        }
+    }
+
+    @Override
+    @Synchronized
+    public void unregister(@NonNull final Object listener) {
+        purgeCollectedListeners();
+
+        unregisterHandlers(listeners.get(new ListenerKey(listener, false, null)));
+    }
+
+    @Override
+    @Synchronized
+    public void unregisterAll(@NonNull final Object owner) {
+        purgeCollectedListeners();
+
+        unregisterHandlers(owners.get(new ListenerKey(owner, false, null)));
+    }
+
+    /**
+     * Registers the handler storing it in the registrations of its owner and listener.
+     * Should only be called by the thread holding this manager's lock.
+     *
+     * @param owner registrations of the handler's owner
+     * @param listener registrations of the handler's listener
+     * @param eventType type of the event
+     * @param consumer handler of the event
+     * @param priority event priority
+     * @param <T> generic type of the event
+     */
+    @SuppressWarnings("unchecked")
+    protected <T extends E> void registerHandler(@NonNull final Registrations<E> owner,
+                                                 @NonNull final Registrations<E> listener,
+                                                 @NonNull final Class<T> eventType,
+                                                 @NonNull final Consumer<? super T> consumer, final byte priority) {
+        val handler = new Handler<E>(eventType, (Consumer<E>) consumer, priority, registrations++, owner, listener);
+        owner.handlers.add(handler);
+        listener.handlers.add(handler);
+
+        getHandlerList(eventType).add((Handler<T>) (Handler<?>) handler);
+        rebuildDispatchTables(eventType);
+    }
+
+    /**
+     * Unregisters all the handlers of the given registrations.
+     * Should only be called by the thread holding this manager's lock.
+     *
+     * @param registrations registrations whose handlers should be unregistered
+     */
+    @SuppressWarnings("unchecked")
+    protected void unregisterHandlers(@Nullable final Registrations<E> registrations) {
+        if (registrations == null) {
+            return;
+        }
+
+        val removed = new HashMap<Class<?>, Set<Handler<E>>>();
+        for (val handler : new ArrayList<>(registrations.handlers)) {
+            for (val handlerRegistrations : Arrays.asList(handler.owner, handler.listener)) {
+                handlerRegistrations.handlers.remove(handler);
+                if (handlerRegistrations.handlers.isEmpty()) {
+                    (handlerRegistrations == handler.owner ? owners : listeners).remove(handlerRegistrations.key);
+                }
+            }
+
+            removed.computeIfAbsent(handler.eventType, type -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                    .add(handler);
+        }
+
+        for (val entry : removed.entrySet()) {
+            val list = (HandlerList<E>) handlers.get(entry.getKey());
+            if (list != null) {
+                list.removeAll(entry.getValue());
+                // empty lists are removed so that the event class is not retained by this manager
+                if (list.getHandlers().length == 0) {
+                    handlers.remove(entry.getKey(), list);
+                }
+            }
+            rebuildDispatchTables(entry.getKey());
+        }
+    }
+
+    /**
+     * Unregisters handlers of all weakly referenced listeners and owners which were garbage collected.
+     * Should only be called by the thread holding this manager's lock.
+     */
+    protected void purgeCollectedListeners() {
+        Reference<?> reference;
+        while ((reference = collectedListeners.poll()) != null) {
+            unregisterHandlers(listeners.get(reference));
+            unregisterHandlers(owners.get(reference));
+        }
+    }
+
+    /**
+     * Gets the registrations of the given object creating them if needed.
+     * Should only be called by the thread holding this manager's lock.
+     *
+     * @param registrations registrations of listeners or owners
+     * @param referent listener or owner
+     * @return registrations of the given object
+     */
+    @NotNull
+    protected Registrations<E> getRegistrations(@NonNull final Map<ListenerKey, Registrations<E>> registrations,
+                                                @NonNull final Object referent) {
+        return registrations.computeIfAbsent(
+                new ListenerKey(referent, weakListeners, collectedListeners), Registrations::new
+        );
+    }
+
+    /**
+     * Rebuilds (copy-on-write) those dispatch tables which are affected by handlers of the given event type.
+     * Should only be called by the thread holding this manager's lock.
+     *
+     * @param eventType type of the event whose handlers have been changed
+     */
+    protected void rebuildDispatchTables(@NonNull final Class<?> eventType) {
+        for (val entry : compiledDispatchTables.entrySet()) {
+            val tableType = entry.getKey();
+            if (dispatchMode == DispatchMode.EXACT
+                    ? tableType == eventType : eventType.isAssignableFrom(tableType)) {
+                entry.getValue().handlers = compileHandlers(tableType);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * This only reads the array of the event type's compiled dispatch table.
+     */
+    @Override
+    public boolean hasListeners(@NonNull final Class<? extends E> eventType) {
+        return dispatchTables.get(eventType).handlers.length != 0;
     }
 
     /**
      * Call given event (invoke all methods in registered listeners, which are handling this event).
-     * Doesn't invoke handle-methods for any parents of the given event.
+     * Invokes handle-methods for parents of the given event only in {@link DispatchMode#HIERARCHICAL} mode.
      *
      * @param event
      */
     @Override
     public <T extends E> void call(@NotNull final T event) {
-        // because generics are magic
-        @SuppressWarnings("unchecked") val handlers = getNullableHandlerQueue((Class<? extends E>) event.getClass());
-        if (handlers == null) {
+        for (val handler : dispatchTables.get(event.getClass()).handlers) {
+            handler.accept(event);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Consecutive events of the same exact type are called as a single batch
+     * so that each handler is called for all events of the batch before the next one.
+     */
+    @Override
+    public <T extends E> void callAll(@NonNull final Collection<? extends T> events) {
+        callBatches(events, eventType -> dispatchTables.get(eventType).handlers);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each handler is called for all events of the batch before the next one.
+     *
+     * @throws IllegalArgumentException if any of the events is not of the exact specified type
+     */
+    @Override
+    public <T extends E> void callBatch(@NonNull final Class<T> eventType, @NonNull final T[] events) {
+        requireExactType(eventType, events);
+
+        callBatch(dispatchTables.get(eventType).handlers, Arrays.asList(events));
+    }
+
+    /**
+     * Checks that all the events are of the exact specified type.
+     *
+     * @param eventType exact type of all the events
+     * @param events events to check
+     * @param <T> exact type of the events
+     * @throws IllegalArgumentException if any of the events is not of the exact specified type
+     */
+    protected static <T extends Event> void requireExactType(@NonNull final Class<T> eventType,
+                                                             @NonNull final T[] events) {
+        for (val event : events) {
+            if (event.getClass() != eventType) {
+                throw new IllegalArgumentException("Event " + event + " is not of exact type " + eventType);
+            }
+        }
+    }
+
+    /**
+     * Calls all the events splitting them into batches of consecutive events of the same exact type.
+     *
+     * @param events events to call
+     * @param handlers function providing handlers compiled for the exact type of the events
+     * @param <E> super-type of the events handled
+     * @param <T> super-type of the events to call
+     */
+    @SuppressWarnings("unchecked")
+    protected static <E extends Event, T extends E> void callBatches(
+            @NonNull final Collection<? extends T> events,
+            @NonNull final Function<Class<?>, Consumer<E>[]> handlers) {
+        final List<T> batch = (List<T>) (List<?>) Arrays.asList(events.toArray());
+
+        int start = 0;
+        while (start < batch.size()) {
+            final Class<?> eventType = batch.get(start).getClass();
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).getClass() == eventType) {
+                end++;
+            }
+
+            callBatch(handlers.apply(eventType), batch.subList(start, end));
+            start = end;
+        }
+    }
+
+    /**
+     * Calls each of the handlers for all the events of the batch.
+     *
+     * @param handlers handlers compiled for the exact type of the events
+     * @param events events of the same exact type
+     * @param <E> super-type of the events handled
+     * @param <T> exact type of the events to call
+     */
+    @SuppressWarnings("unchecked")
+    protected static <E extends Event, T extends E> void callBatch(@NonNull final Consumer<E>[] handlers,
+                                                                  @NonNull final List<T> events) {
+        if (handlers.length == 0 || events.isEmpty()) {
             return;
         }
 
+        val batch = Collections.unmodifiableList(events);
         for (val handler : handlers) {
-            handler.accept(event);
+            if (handler instanceof BatchConsumer) {
+                ((BatchConsumer<T>) handler).acceptBatch(batch);
+            } else {
+                for (int i = 0, size = batch.size(); i < size; i++) {
+                    handler.accept(batch.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the dispatch table of the given event class compiling it if it was not yet compiled.
+     *
+     * @param eventType exact class of the event
+     * @return dispatch table of the given event class
+     */
+    @NotNull
+    @Synchronized
+    protected DispatchTable<E> getDispatchTable(@NonNull final Class<?> eventType) {
+        return compiledDispatchTables.computeIfAbsent(
+                eventType, type -> new DispatchTable<>(compileHandlers(type))
+        );
+    }
+
+    /**
+     * Flattens all handlers applicable to the given event class into a priority-sorted array.
+     *
+     * @param eventType exact class of the event
+     * @return new array of handlers to be called for the given event class
+     */
+    @SuppressWarnings("unchecked")
+    protected Consumer<E>[] compileHandlers(@NonNull final Class<?> eventType) {
+        val applicable = new ArrayList<Handler<E>>();
+        if (dispatchMode == DispatchMode.EXACT) {
+            val list = handlers.get(eventType);
+            if (list != null) {
+                Collections.addAll(applicable, ((HandlerList<E>) list).handlers);
+            }
+        } else {
+            for (val entry : handlers.entrySet()) {
+                if (entry.getKey().isAssignableFrom(eventType)) {
+                    Collections.addAll(applicable, ((HandlerList<E>) entry.getValue()).handlers);
+                }
+            }
+            // each of the lists is already sorted so this only merges them
+            applicable.sort(null);
         }
+
+        val compiled = (Consumer<E>[]) new Consumer[applicable.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = applicable.get(i).consumer;
+        }
+
+        return compiled;
     }
 
     @SuppressWarnings("unchecked")
@@ -123,47 +529,216 @@ public class SimpleEventManager<E extends Event> implements EventManager<E> {
         }
     }
 
+    /**
+     * Creates an invoker of the given method which accepts the listener as its first parameter.
+     *
+     * @param method handle-method of the listener
+     * @param <E> type of the event
+     * @return invoker of the given method
+     */
+    @SuppressWarnings("unchecked")
+    protected static <E extends Event> BiConsumer<Object, E> constructInvoker(Method method) {
+        try {
+            Lookup lookup = constructLookup(method.getDeclaringClass());
+            return (BiConsumer<Object, E>) LambdaMetafactory.metafactory(
+                    lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    lookup.unreflect(method),
+                    MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0])
+            ).getTarget().invoke();
+        } catch (Throwable t) {
+            throw new RuntimeException("Could not create event listener", t);
+        }
+    }
+
     /**
      * We are in need of our own Lookup creation with an argument of given owner class, because we want to be able
      * to execute private and any other non-public methods.
+     * {@code MethodHandles#privateLookupIn(Class, Lookup)} is used when available (Java 9+)
+     * otherwise the lookup is created via its private constructor (which only exists in Java 8).
      *
      * @param owner owner class
      * @return lookup with owner class privileges
      */
     @SneakyThrows
     protected static Lookup constructLookup(Class<?> owner) {
+        if (PRIVATE_LOOKUP_IN != null) {
+            return (Lookup) PRIVATE_LOOKUP_IN.invoke(null, owner, MethodHandles.lookup());
+        }
+
         val constructor = Lookup.class.getDeclaredConstructor(Class.class);
         constructor.setAccessible(true);
 
         return constructor.newInstance(owner);
     }
 
-    @Data
+    @Getter
+    @RequiredArgsConstructor
     @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
-    private static class Handler<E extends Event> implements Comparable<Handler<E>>, Consumer<E> {
-        @Delegate Consumer<E> consumer;
+    protected static class Handler<E extends Event> implements Comparable<Handler<E>>, Consumer<E> {
+        @NonNull Class<?> eventType;
+
+        @Delegate @NonNull Consumer<E> consumer;
 
         byte priority;
 
+        /**
+         * Sequential number of this handler's registration used to keep the order of equal-priority handlers
+         */
+        long order;
+
+        @NonNull Registrations<E> owner, listener;
+
         @Override
         public int compareTo(@NonNull final Handler<E> handler) {
-            return priority - handler.priority;
+            return priority == handler.priority ? Long.compare(order, handler.order) : priority - handler.priority;
         }
     }
 
-    @Value
+    /**
+     * Key of a listener or an owner comparing them by identity which may reference them either strongly or weakly.
+     */
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    protected static final class ListenerKey extends WeakReference<Object> {
+
+        @Nullable Object strongReferent;
+        int hashCode;
+
+        public ListenerKey(@NonNull final Object referent, final boolean weak,
+                           @Nullable final ReferenceQueue<Object> queue) {
+            super(referent, weak ? queue : null);
+
+            strongReferent = weak ? null : referent;
+            hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof ListenerKey)) {
+                return false;
+            }
+
+            val referent = get();
+            return referent != null && referent == ((ListenerKey) object).get();
+        }
+    }
+
+    /**
+     * Handlers registered by a listener or on behalf of an owner.
+     */
+    @RequiredArgsConstructor
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    protected static final class Registrations<E extends Event> {
+
+        @NonNull ListenerKey key;
+        Set<Handler<E>> handlers = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Consumer calling the handle-method of a weakly referenced listener unless it has been garbage collected.
+     */
     @RequiredArgsConstructor
-    @EqualsAndHashCode(callSuper = true)
     @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
-    protected static class HandlerQueue<E extends Event> extends PriorityQueue<Consumer<E>> {
+    protected static final class WeakListenerConsumer<E extends Event> implements Consumer<E> {
+
+        @NonNull Reference<?> listener;
+        @NonNull BiConsumer<Object, E> invoker;
 
-        // because JDK is an evil guy
-        private static final long serialVersionUID = 297336550679724498L;
+        @Override
+        public void accept(final E event) {
+            val target = listener.get();
+            if (target != null) {
+                invoker.accept(target, event);
+            }
+        }
+    }
 
-        @NonNull Queue<Consumer<E>> queue;
+    /**
+     * Flattened and immutable array of handlers to be called for the specific event class.
+     * The array itself is never modified but gets replaced (copy-on-write) when new handlers are registered.
+     * The table does not reference its event class which is only weakly referenced by this manager.
+     */
+    @RequiredArgsConstructor
+    @FieldDefaults(level = AccessLevel.PROTECTED)
+    protected static final class DispatchTable<E extends Event> {
+
+        @NonNull volatile Consumer<E>[] handlers;
+    }
+
+    /**
+     * Handlers of the specific event type stored as an array snapshot sorted by priority
+     * keeping the order of registration for handlers of equal priority.
+     * The snapshot is replaced (copy-on-write) on modification so that it can be read without any locking.
+     */
+    @ToString
+    @FieldDefaults(level = AccessLevel.PROTECTED)
+    protected static class HandlerList<E extends Event> {
+
+        @SuppressWarnings("rawtypes")
+        private static final Handler[] EMPTY_HANDLERS = new Handler[0];
+
+        @SuppressWarnings("unchecked")
+        @NonNull volatile Handler<E>[] handlers = EMPTY_HANDLERS;
+
+        /**
+         * Gets the current snapshot of handlers which should not be modified.
+         *
+         * @return handlers sorted by their priority
+         */
+        public Handler<E>[] getHandlers() {
+            return handlers;
+        }
+
+        /**
+         * Adds the handler after all handlers whose priority is lower or equal.
+         *
+         * @param handler handler to add
+         */
+        @SuppressWarnings("unchecked")
+        public synchronized void add(@NonNull final Handler<E> handler) {
+            val current = handlers;
+
+            int index = current.length;
+            while (index > 0 && current[index - 1].compareTo(handler) > 0) {
+                index--;
+            }
+
+            val updated = (Handler<E>[]) new Handler[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            updated[index] = handler;
+            System.arraycopy(current, index, updated, index + 1, current.length - index);
+
+            handlers = updated;
+        }
+
+        /**
+         * Removes all the given handlers.
+         *
+         * @param removed handlers to remove
+         */
+        @SuppressWarnings("unchecked")
+        public synchronized void removeAll(@NonNull final Set<Handler<E>> removed) {
+            val current = handlers;
+
+            val updated = (Handler<E>[]) new Handler[current.length];
+            int size = 0;
+            for (val handler : current) {
+                if (!removed.contains(handler)) {
+                    updated[size++] = handler;
+                }
+            }
 
-        public HandlerQueue() {
-            this(new PriorityQueue<>());
+            handlers = Arrays.copyOf(updated, size);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * An event manager publishing all of its handlers as a single immutable snapshot (RCU-style).
+ * Callers only read the current snapshot and never take any lock
+ * while registrations and unregistrations build a new snapshot and publish it atomically via CAS
+ * so that concurrent callers either see all of the changes of it or none of them.
+ *
+ * @apiNote events being called while a handler gets registered or unregistered
+ * are handled according to the snapshot published at the moment of the call
+ *
+ * @param <E> super-type of events handled
+ */
+@FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+public class SnapshotEventManager<E extends Event> implements EventManager<E> {
+
+    @NonNull DispatchMode dispatchMode;
+
+    /**
+     * Currently published snapshot of all registered handlers
+     */
+    AtomicReference<Snapshot<E>> snapshot;
+
+    /**
+     * Sequential number of the next handler's registration
+     */
+    AtomicLong registrations = new AtomicLong();
+
+    /**
+     * Handlers compiled for each called event class, {@link ClassValue} is used
+     * so that {@link #call(Event)} does not have to perform any map lookup
+     */
+    ClassValue<CompiledHandlers<E>> compiledHandlers = new ClassValue<CompiledHandlers<E>>() {
+        @Override
+        protected CompiledHandlers<E> computeValue(final Class<?> type) {
+            return calledTypes.computeIfAbsent(type, key -> new CompiledHandlers<>());
+        }
+    };
+
+    /**
+     * Compiled handlers of the event classes called by now which get compiled eagerly on publication,
+     * event classes are referenced weakly so that those of unloaded modules can be garbage collected
+     */
+    Map<Class<?>, CompiledHandlers<E>> calledTypes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public SnapshotEventManager() {
+        this(DispatchMode.EXACT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public SnapshotEventManager(@NonNull final DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+        this.snapshot = new AtomicReference<>(
+                new Snapshot<>(dispatchMode, (Handler<E>[]) new Handler[0])
+        );
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends E> void register(@NonNull final Object owner, @NonNull final Class<T> eventType,
+                                       @NonNull final Consumer<T> handler, final byte priority) {
+        val registered = new Handler<E>(
+                owner, handler, eventType, (Consumer<E>) handler, priority, registrations.getAndIncrement()
+        );
+        publish(current -> current.with(Collections.singletonList(registered)));
+    }
+
+    /**
+     * Registers given listener (all event handling methods within it) publishing all of its handlers at once.
+     *
+     * @param owner owner of the listener's handlers
+     * @param listener listener to register
+     */
+    @Override
+    public void register(@NonNull final Object owner, @NonNull final Object listener) {
+        val registered = new ArrayList<Handler<E>>();
+        for (val method : listener.getClass().getDeclaredMethods()) {
+            if (method.getParameterCount() != 1 || !method.isAnnotationPresent(EventHandler.class)) {
+                continue;
+            }
+
+            val parameterType = method.getParameterTypes()[0];
+            if (!Event.class.isAssignableFrom(parameterType)) {
+                continue;
+            }
+
+            registered.add(new Handler<>(
+                    owner, listener, parameterType, SimpleEventManager.<E>constructConsumer(listener, method),
+                    method.getAnnotation(EventHandler.class).priority(), registrations.getAndIncrement()
+            ));
+        }
+
+        if (!registered.isEmpty()) {
+            publish(current -> current.with(registered));
+        }
+    }
+
+    @Override
+    public void unregister(@NonNull final Object listener) {
+        publish(current -> current.without(handler -> handler.listener == listener));
+    }
+
+    @Override
+    public void unregisterAll(@NonNull final Object owner) {
+        publish(current -> current.without(handler -> handler.owner == owner));
+    }
+
+    /**
+     * Atomically replaces the current snapshot with the updated one retrying on concurrent modification.
+     * Handlers of the event classes called by now are compiled for the published snapshot
+     * so that callers do not have to compile them. Event classes which have no handlers in it are evicted
+     * so that the cost of publication does not grow with every event class ever called,
+     * their handlers get compiled again by their next caller.
+     *
+     * @param update function creating the updated snapshot from the current one, may be applied multiple times
+     */
+    protected void publish(@NonNull final UnaryOperator<Snapshot<E>> update) {
+        Snapshot<E> current, updated;
+        do {
+            current = snapshot.get();
+            updated = update.apply(current);
+        } while (current != updated && !snapshot.compareAndSet(current, updated));
+
+        if (current != updated) {
+            // entries are copied so that their event classes are strongly referenced while being compiled
+            val called = new ArrayList<Map.Entry<Class<?>, CompiledHandlers<E>>>();
+            synchronized (calledTypes) {
+                for (val entry : calledTypes.entrySet()) {
+                    called.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+                }
+            }
+
+            for (val entry : called) {
+                val eventType = entry.getKey();
+                if (entry.getValue().get(updated, eventType).length == 0) {
+                    // callers which still have the evicted handlers compile them on demand
+                    calledTypes.remove(eventType, entry.getValue());
+                    compiledHandlers.remove(eventType);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets handlers of the given snapshot to be called for the given event class.
+     *
+     * @param snapshot snapshot of the handlers
+     * @param eventType exact class of the event
+     * @return handlers to be called for the given event class which should not be modified
+     */
+    @NotNull
+    protected Consumer<E>[] getHandlers(@NonNull final Snapshot<E> snapshot, @NonNull final Class<?> eventType) {
+        return compiledHandlers.get(eventType).get(snapshot, eventType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * This only reads the handlers of the current snapshot.
+     */
+    @Override
+    public boolean hasListeners(@NonNull final Class<? extends E> eventType) {
+        return getHandlers(snapshot.get(), eventType).length != 0;
+    }
+
+    /**
+     * Call given event (invoke all handlers of the current snapshot which are handling this event).
+     * Invokes handlers of parents of the given event only in {@link DispatchMode#HIERARCHICAL} mode.
+     *
+     * @param event event to call
+     */
+    @Override
+    public <T extends E> void call(@NotNull final T event) {
+        for (val handler : getHandlers(snapshot.get(), event.getClass())) {
+            handler.accept(event);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * All events are called using the same snapshot,
+     * consecutive events of the same exact type are called as a single batch
+     * so that each handler is called for all events of the batch before the next one.
+     */
+    @Override
+    public <T extends E> void callAll(@NonNull final Collection<? extends T> events) {
+        val current = snapshot.get();
+        SimpleEventManager.callBatches(events, eventType -> getHandlers(current, eventType));
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each handler is called for all events of the batch before the next one.
+     *
+     * @throws IllegalArgumentException if any of the events is not of the exact specified type
+     */
+    @Override
+    public <T extends E> void callBatch(@NonNull final Class<T> eventType, @NonNull final T[] events) {
+        SimpleEventManager.requireExactType(eventType, events);
+
+        SimpleEventManager.callBatch(getHandlers(snapshot.get(), eventType), Arrays.asList(events));
+    }
+
+    /**
+     * Registered handler along with its owner and listener.
+     */
+    @RequiredArgsConstructor
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    protected static final class Handler<E extends Event> implements Comparable<Handler<E>> {
+
+        @NonNull Object owner, listener;
+        @NonNull Class<?> eventType;
+        @NonNull Consumer<E> consumer;
+        byte priority;
+
+        /**
+         * Sequential number of this handler's registration used to keep the order of equal-priority handlers
+         */
+        long order;
+
+        @Override
+        public int compareTo(@NonNull final Handler<E> handler) {
+            return priority == handler.priority ? Long.compare(order, handler.order) : priority - handler.priority;
+        }
+    }
+
+    /**
+     * Handlers compiled for the specific event class along with the snapshot they were compiled for.
+     * These do not reference the event class which is only weakly referenced by the manager.
+     */
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    protected static final class CompiledHandlers<E extends Event> {
+
+        /**
+         * Handlers compiled for the most recently requested snapshot
+         */
+        @NonFinal volatile Compilation<E> compilation;
+
+        /**
+         * Gets handlers of the given snapshot compiling them unless they were compiled for it by now.
+         *
+         * @param snapshot snapshot of the handlers
+         * @param eventType exact class of the event which these handlers are compiled for
+         * @return handlers to be called for the event class which should not be modified
+         */
+        @NotNull
+        public Consumer<E>[] get(@NonNull final Snapshot<E> snapshot, @NonNull final Class<?> eventType) {
+            val current = compilation;
+            if (current != null && current.snapshot == snapshot) {
+                return current.handlers;
+            }
+
+            // concurrent callers may compile the handlers of different snapshots, each gets those of its own
+            val handlers = snapshot.compileHandlers(eventType);
+            compilation = new Compilation<>(snapshot, handlers);
+
+            return handlers;
+        }
+    }
+
+    /**
+     * Handlers compiled for the specific snapshot.
+     */
+    @RequiredArgsConstructor
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    protected static final class Compilation<E extends Event> {
+
+        @NonNull Snapshot<E> snapshot;
+        @NonNull Consumer<E>[] handlers;
+    }
+
+    /**
+     * Immutable snapshot of all registered handlers.
+     */
+    @RequiredArgsConstructor
+    @FieldDefaults(level = AccessLevel.PROTECTED, makeFinal = true)
+    protected static final class Snapshot<E extends Event> {
+
+        @NonNull DispatchMode dispatchMode;
+
+        /**
+         * All handlers sorted by their priority and order of registration
+         */
+        @NonNull Handler<E>[] handlers;
+
+        /**
+         * Flattens all handlers applicable to the given event class into a priority-sorted array.
+         *
+         * @param eventType exact class of the event
+         * @return new array of handlers to be called for the given event class
+         */
+        @SuppressWarnings("unchecked")
+        public Consumer<E>[] compileHandlers(@NonNull final Class<?> eventType) {
+            val applicable = new ArrayList<Consumer<E>>();
+            for (val handler : handlers) {
+                if (dispatchMode == DispatchMode.EXACT
+                        ? handler.eventType == eventType : handler.eventType.isAssignableFrom(eventType)) {
+                    applicable.add(handler.consumer);
+                }
+            }
+
+            return applicable.toArray((Consumer<E>[]) new Consumer[applicable.size()]);
+        }
+
+        /**
+         * Creates a new snapshot containing the given handlers in addition to those of this one.
+         *
+         * @param added handlers to add
+         * @return new snapshot
+         */
+        @NotNull
+        public Snapshot<E> with(@NonNull final List<Handler<E>> added) {
+            val updated = Arrays.copyOf(handlers, handlers.length + added.size());
+            for (int i = 0; i < added.size(); i++) {
+                updated[handlers.length + i] = added.get(i);
+            }
+            Arrays.sort(updated);
+
+            return new Snapshot<>(dispatchMode, updated);
+        }
+
+        /**
+         * Creates a new snapshot not containing the handlers matching the given predicate.
+         *
+         * @param removed predicate of handlers to remove
+         * @return new snapshot or this one if no handlers match the predicate
+         */
+        @NotNull
+        @SuppressWarnings("unchecked")
+        public Snapshot<E> without(@NonNull final Predicate<Handler<E>> removed) {
+            val updated = (Handler<E>[]) new Handler[handlers.length];
+            int size = 0;
+            for (val handler : handlers) {
+                if (!removed.test(handler)) {
+                    updated[size++] = handler;
+                }
+            }
+
+            return size == handlers.length
+                    ? this : new Snapshot<>(dispatchMode, Arrays.copyOf(updated, size));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncEventManagerTest {
+
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    // Stubs of events handled by different executors
+    private static class FooEvent implements Event {}
+    private static class BarEvent implements Event {}
+    private static class CancellableFooEvent extends SimpleCancellableEvent {}
+
+    /**
+     * Creates an executor which records its name before running the task on the caller's thread.
+     */
+    private Executor recordingExecutor(final String name) {
+        return task -> {
+            calls.add(name);
+            task.run();
+        };
+    }
+
+    @Test
+    void testExecutorRouting() {
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(recordingExecutor("default"))
+                .executor(FooEvent.class, recordingExecutor("foo"))
+                .build();
+
+        eventManager.register(FooEvent.class, event -> calls.add("foo handler"));
+        eventManager.register(BarEvent.class, event -> calls.add("bar handler"));
+
+        eventManager.call(new FooEvent());
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("foo", "foo handler", "default", "bar handler"));
+    }
+
+    @Test
+    void testCallAllBatchesConsecutiveEventsOfSameType() {
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(recordingExecutor("default"))
+                .executor(FooEvent.class, recordingExecutor("foo"))
+                .build();
+
+        eventManager.register(FooEvent.class, (BatchConsumer<FooEvent>) events -> calls.add("foo" + events.size()),
+                (byte) 0);
+        eventManager.register(BarEvent.class, (BatchConsumer<BarEvent>) events -> calls.add("bar" + events.size()),
+                (byte) 0);
+
+        eventManager.callAll(Arrays.asList(new FooEvent(), new FooEvent(), new BarEvent(), new FooEvent()));
+        assertThat(calls, contains("foo", "foo2", "default", "bar1", "foo", "foo1"));
+    }
+
+    @Test
+    void testCallAsyncCompletion() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(task -> new Thread(task).start())
+                .build();
+
+        eventManager.register(FooEvent.class, event -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            calls.add("handled");
+        });
+
+        final FooEvent event = new FooEvent();
+        final CompletableFuture<FooEvent> future = eventManager.callAsync(event);
+        assertThat(future.isDone(), is(false));
+
+        release.countDown();
+        assertThat(future.get(5, TimeUnit.SECONDS), is(sameInstance(event)));
+        assertThat(calls, contains("handled"));
+    }
+
+    @Test
+    void testCallAsyncExceptionPropagation() {
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(task -> new Thread(task).start())
+                .build();
+
+        final IllegalStateException failure = new IllegalStateException("handler failure");
+        eventManager.register(FooEvent.class, event -> {
+            throw failure;
+        });
+
+        final ExecutionException thrown = assertThrows(
+                ExecutionException.class, () -> eventManager.callAsync(new FooEvent()).get(5, TimeUnit.SECONDS)
+        );
+        assertThat(thrown.getCause(), is(sameInstance(failure)));
+    }
+
+    @Test
+    void testCallPassesExceptionToUncaughtExceptionHandler() throws Exception {
+        final CountDownLatch caught = new CountDownLatch(1);
+        final AtomicReference<Throwable> exception = new AtomicReference<>();
+        final AtomicReference<Runnable> submitted = new AtomicReference<>();
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(submitted::set)
+                .build();
+
+        final IllegalStateException failure = new IllegalStateException("handler failure");
+        eventManager.register(FooEvent.class, event -> {
+            throw failure;
+        });
+
+        eventManager.call(new FooEvent());
+
+        // the task is only run once the call has returned so that the failure is reported by the executing thread
+        final Thread thread = new Thread(submitted.get());
+        thread.setUncaughtExceptionHandler((t, e) -> {
+            exception.set(e);
+            caught.countDown();
+        });
+        thread.start();
+        assertThat(caught.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThat(exception.get(), is(sameInstance(failure)));
+    }
+
+    @Test
+    void testFailureReportedByExecutingThread() {
+        final List<Thread> executing = new ArrayList<>(), reporting = new ArrayList<>();
+        // executor which only returns once the task has completed on its own thread
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(task -> {
+                    final Thread thread = new Thread(task);
+                    thread.setUncaughtExceptionHandler((t, e) -> reporting.add(Thread.currentThread()));
+                    executing.add(thread);
+                    thread.start();
+                    try {
+                        thread.join();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .build();
+
+        eventManager.register(FooEvent.class, event -> {
+            throw new IllegalStateException("handler failure");
+        });
+
+        eventManager.call(new FooEvent());
+        eventManager.callBatch(FooEvent.class, new FooEvent[]{new FooEvent()});
+        assertThat(executing.size(), is(2));
+        assertThat(reporting, is(executing));
+    }
+
+    @Test
+    void testCancellableEventsCalledSynchronously() {
+        AsyncEventManager<Event> eventManager = AsyncEventManager.<Event>builder()
+                .defaultExecutor(recordingExecutor("default"))
+                .build();
+
+        eventManager.register(CancellableFooEvent.class, event -> event.setCancelled(true));
+
+        final CancellableFooEvent event = new CancellableFooEvent();
+        final CompletableFuture<CancellableFooEvent> future = eventManager.callAsync(event);
+        assertThat(future.isDone(), is(true));
+        assertThat(event.isCancelled(), is(true));
+        assertThat(calls.isEmpty(), is(true));
+
+        assertThat(future.join(), is(instanceOf(CancellableFooEvent.class)));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Calls events on multiple threads while another thread keeps changing the handlers of the event manager.
+ */
+final class ConcurrentCalls {
+
+    private static final int CALLERS = 4, CALLS = 20_000;
+
+    private ConcurrentCalls() {}
+
+    /**
+     * Event recording the names of the handlers which have handled it.
+     */
+    static final class RecordingEvent implements Event {
+
+        final List<String> handled = new ArrayList<>();
+    }
+
+    /**
+     * Calls {@link RecordingEvent}s on multiple threads while the writer keeps being run on another thread
+     * checking that each call is handled by one of the allowed sequences of handlers.
+     *
+     * @param eventManager event manager to call the events by
+     * @param writer action changing the handlers of the event manager
+     * @param allowed sequences of handlers by one of which each event should be handled
+     */
+    static void run(final EventManager<Event> eventManager, final Runnable writer,
+                    final Collection<List<String>> allowed) throws InterruptedException {
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final Queue<List<String>> unexpected = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1), finish = new CountDownLatch(CALLERS);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int call = 0; call < CALLS; call++) {
+                        final RecordingEvent event = new RecordingEvent();
+                        eventManager.call(event);
+                        if (!allowed.contains(event.handled)) {
+                            unexpected.add(event.handled);
+                        }
+                    }
+                } catch (final Throwable t) {
+                    failures.add(t);
+                } finally {
+                    finish.countDown();
+                }
+            }));
+        }
+        final AtomicInteger writes = new AtomicInteger();
+        threads.add(new Thread(() -> {
+            try {
+                start.await();
+                while (finish.getCount() != 0) {
+                    writer.run();
+                    writes.incrementAndGet();
+                }
+            } catch (final Throwable t) {
+                failures.add(t);
+            }
+        }));
+
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failures, is(empty()));
+        assertThat(unexpected, is(empty()));
+        assertThat(writes.get(), is(greaterThan(0)));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventRecyclerTest {
+
+    private final EventRecycler<FooEvent> recycler = new EventRecycler<FooEvent>(1) {
+        @Override
+        protected FooEvent newObject(final Handle<FooEvent> handle) {
+            return new FooEvent(handle);
+        }
+    };
+
+    private static class FooEvent implements RecyclableEvent {
+
+        private final EventRecycler.Handle<FooEvent> handle;
+        private String value;
+
+        private FooEvent(final EventRecycler.Handle<FooEvent> handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void recycle() {
+            value = null;
+            handle.recycle(this);
+        }
+    }
+
+    @Test
+    void testReuse() {
+        final FooEvent event = recycler.get();
+        event.value = "foo";
+        event.recycle();
+
+        final FooEvent reused = recycler.get();
+        assertThat(reused, sameInstance(event));
+        assertThat(reused.value, nullValue());
+        assertThat(recycler.get(), not(sameInstance(event)));
+    }
+
+    @Test
+    void testCapacity() {
+        final FooEvent first = recycler.get(), second = recycler.get();
+        first.recycle();
+        second.recycle();
+
+        assertThat(recycler.get(), sameInstance(first));
+        assertThat(recycler.get(), not(anyOf(sameInstance(first), sameInstance(second))));
+    }
+
+    @Test
+    void testDoubleRecycle() {
+        final FooEvent event = recycler.get();
+        event.recycle();
+
+        assertThrows(IllegalStateException.class, event::recycle);
+    }
+
+    @Test
+    void testRecycleByOtherThread() throws InterruptedException {
+        final FooEvent event = recycler.get();
+        final Thread thread = new Thread(event::recycle);
+        thread.start();
+        thread.join();
+
+        assertThat(recycler.get(), not(sameInstance(event)));
+    }
+}
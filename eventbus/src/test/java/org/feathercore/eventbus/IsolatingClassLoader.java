@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Class loader defining its own copy of the given class (which may then be unloaded along with this loader)
+ * delegating the loading of all other classes to the class loader of the given class.
+ */
+final class IsolatingClassLoader extends ClassLoader {
+
+    private final String isolatedName;
+
+    private IsolatingClassLoader(final Class<?> isolated) {
+        super(isolated.getClassLoader());
+
+        isolatedName = isolated.getName();
+    }
+
+    /**
+     * Loads a copy of the given class by a new class loader.
+     *
+     * @param isolated class to copy which should be a public top-level or static nested class
+     * @return copy of the given class
+     */
+    static Class<?> loadCopy(final Class<?> isolated) throws ClassNotFoundException {
+        return new IsolatingClassLoader(isolated).loadClass(isolated.getName());
+    }
+
+    @Override
+    protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+        if (!name.equals(isolatedName)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> type = findLoadedClass(name);
+            if (type == null) {
+                type = findClass(name);
+            }
+
+            return type;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(final String name) throws ClassNotFoundException {
+        try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+            if (in == null) {
+                throw new ClassNotFoundException(name);
+            }
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            final byte[] bytes = out.toByteArray();
+
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (final IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import org.feathercore.eventbus.EventInvokerGenerator.ClassDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SimpleEventManagerTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    // Stubs to have a hierarchy of events
+    private interface MarkerEvent extends Event {}
+    private static class FooEvent implements Event {}
+    private static class BarEvent extends FooEvent implements MarkerEvent {}
+
+    // Stub of an event of a module which gets loaded by its own class loader
+    public static class ModuleEvent implements Event {}
+
+    @Test
+    void testPriorityOrder() {
+        EventManager<Event> eventManager = new SimpleEventManager<>();
+
+        eventManager.register(FooEvent.class, event -> calls.add("5"), (byte) 5);
+        eventManager.register(FooEvent.class, event -> calls.add("-3"), (byte) -3);
+        eventManager.register(FooEvent.class, event -> calls.add("0"));
+        eventManager.register(FooEvent.class, event -> calls.add("127"), Byte.MAX_VALUE);
+        eventManager.register(FooEvent.class, event -> calls.add("-128"), Byte.MIN_VALUE);
+        eventManager.register(FooEvent.class, event -> calls.add("1"), (byte) 1);
+        eventManager.register(FooEvent.class, event -> calls.add("-1"), (byte) -1);
+
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("-128", "-3", "-1", "0", "1", "5", "127"));
+    }
+
+    @Test
+    void testRegistrationOrderWithinPriority() {
+        EventManager<Event> eventManager = new SimpleEventManager<>();
+
+        for (int i = 0; i < 10; i++) {
+            final String name = Integer.toString(i);
+            eventManager.register(FooEvent.class, event -> calls.add(name), (byte) (i % 2));
+        }
+
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("0", "2", "4", "6", "8", "1", "3", "5", "7", "9"));
+    }
+
+    @Test
+    void testConcurrentRegistration() throws InterruptedException {
+        EventManager<Event> eventManager = new SimpleEventManager<>();
+        eventManager.register(ConcurrentCalls.RecordingEvent.class, event -> event.handled.add("base"));
+
+        // callers read the handlers without locking while they are being registered and unregistered
+        final Consumer<ConcurrentCalls.RecordingEvent> handler = event -> event.handled.add("early");
+        ConcurrentCalls.run(eventManager, () -> {
+            eventManager.register(ConcurrentCalls.RecordingEvent.class, handler, (byte) -1);
+            eventManager.unregister(handler);
+        }, Arrays.asList(Collections.singletonList("base"), Arrays.asList("early", "base")));
+    }
+
+    @Test
+    void testRegistrationAfterCall() {
+        EventManager<Event> eventManager = new SimpleEventManager<>();
+
+        eventManager.call(new FooEvent());
+        assertThat(calls, empty());
+
+        eventManager.register(FooEvent.class, event -> calls.add("foo"));
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("foo"));
+    }
+
+    @Test
+    void testExactDispatch() {
+        EventManager<Event> eventManager = new SimpleEventManager<>(DispatchMode.EXACT);
+
+        eventManager.register(FooEvent.class, event -> calls.add("foo"));
+        eventManager.register(MarkerEvent.class, event -> calls.add("marker"));
+        eventManager.register(BarEvent.class, event -> calls.add("bar"));
+
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("bar"));
+    }
+
+    @Test
+    void testHierarchicalDispatch() {
+        EventManager<Event> eventManager = new SimpleEventManager<>(DispatchMode.HIERARCHICAL);
+
+        eventManager.register(BarEvent.class, event -> calls.add("bar"), (byte) 1);
+        eventManager.register(FooEvent.class, event -> calls.add("foo"), (byte) 1);
+        eventManager.register(MarkerEvent.class, event -> calls.add("marker"), (byte) -1);
+
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("marker", "bar", "foo"));
+
+        calls.clear();
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("foo"));
+    }
+
+    @Test
+    void testHasListeners() {
+        EventManager<Event> eventManager = new SimpleEventManager<>(DispatchMode.HIERARCHICAL);
+
+        assertThat(eventManager.hasListeners(FooEvent.class), is(false));
+        assertThat(eventManager.hasListeners(BarEvent.class), is(false));
+
+        final Consumer<FooEvent> handler = event -> calls.add("foo");
+        eventManager.register(FooEvent.class, handler);
+        assertThat(eventManager.hasListeners(FooEvent.class), is(true));
+        assertThat(eventManager.hasListeners(BarEvent.class), is(true));
+
+        eventManager.unregister(handler);
+        assertThat(eventManager.hasListeners(FooEvent.class), is(false));
+        assertThat(eventManager.hasListeners(BarEvent.class), is(false));
+    }
+
+    @Test
+    void testBatchDispatch() {
+        EventManager<Event> eventManager = new SimpleEventManager<>(DispatchMode.HIERARCHICAL);
+
+        eventManager.register(FooEvent.class, event -> calls.add("foo"), (byte) 0);
+        eventManager.register(FooEvent.class, (BatchConsumer<FooEvent>) events -> calls.add("batch" + events.size()),
+                (byte) 1);
+
+        eventManager.callBatch(FooEvent.class, new FooEvent[]{new FooEvent(), new FooEvent()});
+        assertThat(calls, contains("foo", "foo", "batch2"));
+
+        calls.clear();
+        eventManager.callAll(Arrays.asList(new FooEvent(), new FooEvent(), new BarEvent(), new FooEvent()));
+        assertThat(calls, contains("foo", "foo", "batch2", "foo", "batch1", "foo", "batch1"));
+    }
+
+    @Test
+    void testGeneratedInvokers() {
+        SimpleEventManager<Event> eventManager = SimpleEventManager.builder().generateInvokers(true).build();
+
+        eventManager.register(new FooListener());
+        eventManager.call(new FooEvent());
+        assertThat(calls, containsInAnyOrder("first", "second", "private"));
+
+        // the non-private methods are called by a single generated invoker, the private one by a lambda
+        final Consumer<Event>[] handlers = eventManager.dispatchTables.get(FooEvent.class).handlers;
+        assertThat(handlers.length, is(2));
+        assertThat(Arrays.stream(handlers).filter(handler -> isGeneratedInvoker(handler, FooListener.class)).count(),
+                is(1L));
+
+        calls.clear();
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("bar"));
+    }
+
+    @Test
+    void testGeneratedInvokerDefinedViaLookup() throws Throwable {
+        testGeneratedInvokerDefinition(ClassDefinition.LOOKUP);
+    }
+
+    @Test
+    void testGeneratedInvokerDefinedViaClassLoader() throws Throwable {
+        testGeneratedInvokerDefinition(ClassDefinition.CLASS_LOADER);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void testGeneratedInvokerDefinition(final ClassDefinition definition) throws Throwable {
+        assumeTrue(definition.isAvailable(), definition + " is not available in this runtime");
+
+        final List<Method> methods = Arrays.asList(
+                FooListener.class.getDeclaredMethod("first", FooEvent.class),
+                FooListener.class.getDeclaredMethod("second", FooEvent.class)
+        );
+        final Consumer<FooEvent> invoker = (Consumer<FooEvent>) EventInvokerGenerator
+                .generateInvokerClass(FooListener.class, methods, definition)
+                .invoke(new FooListener());
+        assertThat(isGeneratedInvoker(invoker, FooListener.class), is(true));
+
+        invoker.accept(new FooEvent());
+        assertThat(calls, contains("first", "second"));
+    }
+
+    /**
+     * Checks if the given handler is an invoker generated for the given listener class (rather than a lambda).
+     *
+     * @param handler handler to check
+     * @param listenerClass class of the listener
+     * @return {@code true} if the handler is a generated invoker and {@code false} otherwise
+     */
+    private static boolean isGeneratedInvoker(final Consumer<?> handler, final Class<?> listenerClass) {
+        final Class<?> type = handler.getClass();
+
+        return type.getName().startsWith(listenerClass.getName() + "$$EventInvoker$")
+                && type.getClassLoader() == listenerClass.getClassLoader()
+                && type.getPackage().equals(listenerClass.getPackage());
+    }
+
+    @Test
+    void testGeneratedInvokersKeepDeclarationOrder() {
+        EventManager<Event> reflective = new SimpleEventManager<>();
+        reflective.register(new MixedListener());
+        reflective.call(new FooEvent());
+        final List<String> expected = new ArrayList<>(calls);
+
+        calls.clear();
+        EventManager<Event> generated = SimpleEventManager.builder().generateInvokers(true).build();
+        generated.register(new MixedListener());
+        generated.call(new FooEvent());
+        assertThat(calls, is(expected));
+    }
+
+    @Test
+    void testUnregister() {
+        EventManager<Event> eventManager = new SimpleEventManager<>();
+
+        final FooListener listener = new FooListener();
+        final Consumer<FooEvent> handler = event -> calls.add("handler");
+        eventManager.register(listener);
+        eventManager.register(FooEvent.class, handler);
+
+        eventManager.unregister(listener);
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("handler"));
+
+        calls.clear();
+        eventManager.unregister(handler);
+        eventManager.call(new FooEvent());
+        assertThat(calls, empty());
+    }
+
+    @Test
+    void testUnregisterAll() {
+        EventManager<Event> eventManager = new SimpleEventManager<>(DispatchMode.HIERARCHICAL);
+
+        final Object owner = new Object();
+        eventManager.register(owner, new FooListener());
+        eventManager.register(owner, BarEvent.class, event -> calls.add("owned"), (byte) 0);
+        eventManager.register(BarEvent.class, event -> calls.add("not owned"));
+
+        eventManager.unregisterAll(owner);
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("not owned"));
+    }
+
+    @Test
+    void testUnregisterRetainsNothing() {
+        SimpleEventManager<Event> eventManager = new SimpleEventManager<>();
+
+        final Object owner = new Object();
+        eventManager.register(owner, new Object());
+        assertThat(eventManager.listeners.isEmpty(), is(true));
+        assertThat(eventManager.owners.isEmpty(), is(true));
+
+        final FooListener listener = new FooListener();
+        eventManager.register(owner, listener);
+        eventManager.unregister(listener);
+        assertThat(eventManager.listeners.isEmpty(), is(true));
+        assertThat(eventManager.owners.isEmpty(), is(true));
+        assertThat(eventManager.hasListeners(FooEvent.class), is(false));
+    }
+
+    @Test
+    void testUnregisterReleasesEventClass() throws Exception {
+        for (final DispatchMode dispatchMode : DispatchMode.values()) {
+            EventManager<Event> eventManager = new SimpleEventManager<>(dispatchMode);
+            eventManager.register(FooEvent.class, event -> calls.add("foo"));
+
+            final WeakReference<ClassLoader> classLoader = callModuleEvent(eventManager);
+            assertThat(calls, contains("module"));
+
+            for (int i = 0; i < 100 && classLoader.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertThat(classLoader.get(), nullValue());
+
+            calls.clear();
+            eventManager.call(new FooEvent());
+            assertThat(calls, contains("foo"));
+            calls.clear();
+        }
+    }
+
+    /**
+     * Registers a handler of an event loaded by a separate class loader, calls the event and unregisters the handler.
+     *
+     * @param eventManager event manager to use
+     * @return weak reference to the class loader of the event
+     */
+    @SuppressWarnings("unchecked")
+    private WeakReference<ClassLoader> callModuleEvent(final EventManager<Event> eventManager) throws Exception {
+        final Class<Event> eventType = (Class<Event>) IsolatingClassLoader.loadCopy(ModuleEvent.class);
+        assertThat(eventType.equals(ModuleEvent.class), is(false));
+
+        final Object owner = new Object();
+        eventManager.register(owner, eventType, event -> calls.add("module"), (byte) 0);
+        eventManager.call(eventType.getConstructor().newInstance());
+        eventManager.unregisterAll(owner);
+        assertThat(eventManager.hasListeners(eventType), is(false));
+
+        return new WeakReference<>(eventType.getClassLoader());
+    }
+
+    @Test
+    void testWeakListeners() throws InterruptedException {
+        EventManager<Event> eventManager = SimpleEventManager.builder().weakListeners(true).build();
+
+        FooListener listener = new FooListener();
+        final WeakReference<FooListener> reference = new WeakReference<>(listener);
+        eventManager.register(listener);
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("bar"));
+
+        //noinspection UnusedAssignment: the listener should only be weakly reachable
+        listener = null;
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(reference.get(), nullValue());
+
+        calls.clear();
+        eventManager.call(new BarEvent());
+        assertThat(calls, empty());
+    }
+
+    // a listener whose methods are either called by a generated invoker or by a reflective one
+    private class MixedListener {
+
+        @EventHandler
+        private void reflective(final FooEvent event) {
+            calls.add("reflective");
+        }
+
+        @EventHandler
+        void generated(final FooEvent event) {
+            calls.add("generated");
+        }
+    }
+
+    private class FooListener {
+
+        @EventHandler
+        void first(final FooEvent event) {
+            calls.add("first");
+        }
+
+        @EventHandler
+        public String second(final FooEvent event) {
+            calls.add("second");
+
+            return "second";
+        }
+
+        @EventHandler
+        private void privately(final FooEvent event) {
+            calls.add("private");
+        }
+
+        @EventHandler
+        void bar(final BarEvent event) {
+            calls.add("bar");
+        }
+    }
+}
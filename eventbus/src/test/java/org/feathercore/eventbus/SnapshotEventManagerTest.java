@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.eventbus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class SnapshotEventManagerTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    // Stubs to have a hierarchy of events
+    private static class FooEvent implements Event {}
+    private static class BarEvent extends FooEvent {}
+
+    @Test
+    void testPriorityOrder() {
+        EventManager<Event> eventManager = new SnapshotEventManager<>();
+
+        eventManager.register(FooEvent.class, event -> calls.add("5"), (byte) 5);
+        eventManager.register(FooEvent.class, event -> calls.add("0a"));
+        eventManager.register(FooEvent.class, event -> calls.add("-128"), Byte.MIN_VALUE);
+        eventManager.register(FooEvent.class, event -> calls.add("0b"));
+
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("-128", "0a", "0b", "5"));
+    }
+
+    @Test
+    void testHierarchicalDispatch() {
+        EventManager<Event> eventManager = new SnapshotEventManager<>(DispatchMode.HIERARCHICAL);
+
+        eventManager.register(FooEvent.class, event -> calls.add("foo"), (byte) 1);
+        eventManager.register(BarEvent.class, event -> calls.add("bar"));
+        eventManager.register(Event.class, event -> calls.add("event"), (byte) -1);
+
+        eventManager.call(new BarEvent());
+        assertThat(calls, contains("event", "bar", "foo"));
+
+        calls.clear();
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("event", "foo"));
+    }
+
+    @Test
+    void testRegistrationDuringCall() {
+        EventManager<Event> eventManager = new SnapshotEventManager<>();
+
+        final Consumer<FooEvent> late = event -> calls.add("late");
+        eventManager.register(FooEvent.class, event -> {
+            calls.add("early");
+            eventManager.register(FooEvent.class, late);
+        });
+
+        // the call keeps using the snapshot published before it
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("early"));
+
+        calls.clear();
+        eventManager.unregister(late);
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("early"));
+    }
+
+    @Test
+    void testCalledTypesCompiledOnPublication() {
+        SnapshotEventManager<Event> eventManager = new SnapshotEventManager<>();
+
+        eventManager.register(FooEvent.class, event -> calls.add("first"));
+        eventManager.call(new FooEvent());
+
+        // handlers of the called type are compiled by the registering thread rather than by the next caller
+        eventManager.register(FooEvent.class, event -> calls.add("second"));
+        final SnapshotEventManager.Compilation<Event> compilation
+                = eventManager.calledTypes.get(FooEvent.class).compilation;
+        assertThat(compilation.snapshot, is(sameInstance(eventManager.snapshot.get())));
+        assertThat(compilation.handlers.length, is(2));
+
+        calls.clear();
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("first", "second"));
+    }
+
+    @Test
+    void testUncalledTypesEvicted() {
+        SnapshotEventManager<Event> eventManager = new SnapshotEventManager<>();
+
+        final Consumer<FooEvent> handler = event -> calls.add("foo");
+        eventManager.register(FooEvent.class, handler);
+        eventManager.call(new FooEvent());
+        assertThat(eventManager.hasListeners(BarEvent.class), is(false));
+
+        // types without handlers are evicted on publication rather than compiled for each snapshot
+        eventManager.register(FooEvent.class, event -> calls.add("second"));
+        assertThat(eventManager.calledTypes.get(BarEvent.class), is(nullValue()));
+        assertThat(eventManager.calledTypes.get(FooEvent.class).compilation.handlers.length, is(2));
+
+        eventManager.unregister(handler);
+        assertThat(eventManager.calledTypes.get(FooEvent.class).compilation.handlers.length, is(1));
+
+        calls.clear();
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("second"));
+    }
+
+    @Test
+    void testConcurrentPublication() throws InterruptedException {
+        EventManager<Event> eventManager = new SnapshotEventManager<>();
+        eventManager.register(ConcurrentCalls.RecordingEvent.class, event -> event.handled.add("base"));
+
+        // both handlers of the listener are published at once so callers never see only one of them
+        final RecordingListener listener = new RecordingListener();
+        ConcurrentCalls.run(eventManager, () -> {
+            eventManager.register(listener);
+            eventManager.unregister(listener);
+        }, Arrays.asList(Collections.singletonList("base"), Arrays.asList("before", "base", "after")));
+    }
+
+    @Test
+    void testUnregister() {
+        EventManager<Event> eventManager = new SnapshotEventManager<>();
+
+        final FooListener listener = new FooListener();
+        eventManager.register(listener);
+        eventManager.register(listener, FooEvent.class, event -> calls.add("owned"), (byte) 0);
+        eventManager.call(new FooEvent());
+        assertThat(calls, containsInAnyOrder("first", "second", "owned"));
+
+        calls.clear();
+        eventManager.unregister(listener);
+        eventManager.call(new FooEvent());
+        assertThat(calls, contains("owned"));
+
+        calls.clear();
+        eventManager.unregisterAll(listener);
+        eventManager.call(new FooEvent());
+        assertThat(calls, is(empty()));
+        assertThat(eventManager.hasListeners(FooEvent.class), is(false));
+    }
+
+    @Test
+    void testBatchDispatch() {
+        EventManager<Event> eventManager = new SnapshotEventManager<>();
+
+        eventManager.register(FooEvent.class, event -> calls.add("foo"), (byte) 0);
+        eventManager.register(FooEvent.class, (BatchConsumer<FooEvent>) events -> calls.add("batch" + events.size()),
+                (byte) 1);
+
+        eventManager.callAll(Arrays.asList(new FooEvent(), new FooEvent(), new BarEvent()));
+        assertThat(calls, contains("foo", "foo", "batch2"));
+    }
+
+    private static class RecordingListener {
+
+        @EventHandler(priority = -1)
+        void before(final ConcurrentCalls.RecordingEvent event) {
+            event.handled.add("before");
+        }
+
+        @EventHandler(priority = 1)
+        void after(final ConcurrentCalls.RecordingEvent event) {
+            event.handled.add("after");
+        }
+    }
+
+    private class FooListener {
+
+        @EventHandler
+        void first(final FooEvent event) {
+            calls.add("first");
+        }
+
+        @EventHandler
+        private void second(final FooEvent event) {
+            calls.add("second");
+        }
+    }
+}
@@ -41,6 +41,34 @@ public interface Connection {
 
     ChannelFuture writeFuture(@NonNull byte[] bytes);
 
+    /**
+     * Writes the packet without flushing it so that it is only sent by the following {@link #flush()}
+     * along with other queued packets.
+     *
+     * @param packet packet to queue
+     */
+    default void queue(@NotNull Packet packet) {
+        queue(packet.serialize());
+    }
+
+    /**
+     * Writes the serialized packet without flushing it.
+     * Connections which do not support queueing write it right away.
+     *
+     * @param bytes serialized packet to queue
+     * @see #queue(Packet)
+     */
+    default void queue(@NotNull byte[] bytes) {
+        write(bytes);
+    }
+
+    /**
+     * Sends all packets queued by this connection.
+     * Connections which do not support queueing have nothing to send as all packets have already been written.
+     */
+    default void flush() {
+    }
+
     InetSocketAddress getRemoteAddress();
 
     boolean isActive();
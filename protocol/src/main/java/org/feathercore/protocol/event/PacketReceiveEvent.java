@@ -16,19 +16,71 @@
 
 package org.feathercore.protocol.event;
 
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.*;
+import org.feathercore.eventbus.EventRecycler;
+import org.feathercore.eventbus.RecyclableEvent;
 import org.feathercore.eventbus.SimpleCancellableEvent;
 import org.feathercore.protocol.Connection;
 import org.feathercore.protocol.packet.Packet;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Created by k.shandurenko on 16/04/2019
+ *
+ * @apiNote instances created via {@link #newInstance(Connection, Packet)} are reused
+ * so handlers should not retain them after returning
  */
-@Data
+@Getter
+@ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true)
-public class PacketReceiveEvent extends SimpleCancellableEvent {
+public class PacketReceiveEvent extends SimpleCancellableEvent implements RecyclableEvent {
+
+    private static final EventRecycler<PacketReceiveEvent> RECYCLER = new EventRecycler<PacketReceiveEvent>() {
+        @Override
+        protected PacketReceiveEvent newObject(@NonNull final Handle<PacketReceiveEvent> handle) {
+            return new PacketReceiveEvent(handle);
+        }
+    };
+
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE) private final @Nullable EventRecycler.Handle<PacketReceiveEvent> handle;
+
+    private Connection connection;
+    private Packet packet;
+
+    public PacketReceiveEvent(final Connection connection, final Packet packet) {
+        this.handle = null;
+        this.connection = connection;
+        this.packet = packet;
+    }
+
+    private PacketReceiveEvent(@NonNull final EventRecycler.Handle<PacketReceiveEvent> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Gets a pooled event which should be {@link #recycle() recycled} once it has been called.
+     *
+     * @param connection connection which has received the packet
+     * @param packet received packet
+     * @return pooled event
+     */
+    public static PacketReceiveEvent newInstance(final Connection connection, final Packet packet) {
+        val event = RECYCLER.get();
+        event.connection = connection;
+        event.packet = packet;
+
+        return event;
+    }
+
+    @Override
+    public void recycle() {
+        connection = null;
+        packet = null;
+        cancelled = false;
 
-    private final Connection connection;
-    private final Packet packet;
+        if (handle != null) {
+            handle.recycle(this);
+        }
+    }
 }
@@ -19,10 +19,12 @@ package org.feathercore.protocol.netty;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.DecoderException;
+import io.netty.util.ReferenceCountUtil;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.val;
 import org.apache.logging.log4j.Logger;
+import org.feathercore.eventbus.EventManager;
 import org.feathercore.protocol.Connection;
 import org.feathercore.protocol.event.PacketReceiveEvent;
 import org.feathercore.protocol.event.PreConnectionEvent;
@@ -61,7 +63,8 @@ public class HandlerBoss extends ChannelInboundHandlerAdapter {
     public void channelActive(ChannelHandlerContext ctx) {
         NettyConnection connection = new NettyConnection(ctx);
 
-        if (new PreConnectionEvent(connection).callCancellableGlobally()) {
+        if (EventManager.getGlobal().hasListeners(PreConnectionEvent.class)
+                && new PreConnectionEvent(connection).callCancellableGlobally()) {
             ctx.channel().close();
             return;
         }
@@ -77,7 +80,9 @@ public class HandlerBoss extends ChannelInboundHandlerAdapter {
         if (connection == null) {
             return;
         }
-        new PreDisconnectionEvent(connection).callGlobally();
+        if (EventManager.getGlobal().hasListeners(PreDisconnectionEvent.class)) {
+            new PreDisconnectionEvent(connection).callGlobally();
+        }
         this.serverSoftReference.get().onDisconnected(connection);
     }
 
@@ -85,18 +90,34 @@ public class HandlerBoss extends ChannelInboundHandlerAdapter {
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
         Connection connection = NettyAttributes.getAttribute(ctx, NettyAttributes.CONNECTION_ATTRIBUTE_KEY);
         if (connection == null) {
+            ReferenceCountUtil.release(msg);
             return;
         }
         try {
             val packet = (Packet) msg;
 
-            if (new PacketReceiveEvent(connection, packet).callCancellableGlobally()) {
-                return;
+            if (EventManager.getGlobal().hasListeners(PacketReceiveEvent.class)) {
+                val event = PacketReceiveEvent.newInstance(connection, packet);
+                final boolean cancelled;
+                try {
+                    cancelled = event.callCancellableGlobally();
+                } finally {
+                    event.recycle();
+                }
+
+                if (cancelled) {
+                    return;
+                }
             }
 
-            this.packetRegistry.handlePacket(connection, packet);
+            // lazy packets without a handler are released unread
+            if (this.packetRegistry.hasHandler(packet.getId())) {
+                this.packetRegistry.handlePacket(connection, packet);
+            }
         } catch (Exception ex) {
             throw new PacketHandleException(msg.getClass().getSimpleName(), ex);
+        } finally {
+            ReferenceCountUtil.release(msg);
         }
     }
 
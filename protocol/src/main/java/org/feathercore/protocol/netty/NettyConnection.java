@@ -16,31 +16,37 @@
 
 package org.feathercore.protocol.netty;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
 import io.netty.util.AttributeKey;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.feathercore.protocol.Connection;
+import org.feathercore.protocol.netty.cipher.CipherCodec;
+import org.feathercore.protocol.netty.cipher.CipherCodec.StreamCipher;
 import org.feathercore.protocol.netty.codec.CipherDecoder;
 import org.feathercore.protocol.netty.codec.CipherEncoder;
 import org.feathercore.protocol.netty.codec.Compressor;
 import org.feathercore.protocol.netty.codec.Decompressor;
+import org.feathercore.protocol.netty.compression.AdaptiveCompressionSettings;
+import org.feathercore.protocol.netty.compression.CompressionCodec;
 import org.feathercore.protocol.netty.util.NettyAttributes;
 import org.feathercore.protocol.packet.Packet;
 import org.feathercore.protocol.registry.PacketRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
-import javax.crypto.spec.IvParameterSpec;
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
 import java.security.GeneralSecurityException;
-import java.security.Key;
 
 /**
  * Created by k.shandurenko on 12/04/2019
@@ -53,14 +59,94 @@ public class NettyConnection implements Connection {
 
     private boolean encrypted;
 
+    @Override
+    public void write(@NotNull Packet packet) {
+        this.context.writeAndFlush(packet, context.voidPromise());
+    }
+
+    @Override
+    public ChannelFuture writeFuture(@NotNull Packet packet) {
+        return this.context.writeAndFlush(packet);
+    }
+
     @Override
     public void write(@NotNull byte[] bytes) {
-        this.context.writeAndFlush(bytes, context.voidPromise());
+        this.context.writeAndFlush(Unpooled.wrappedBuffer(bytes), context.voidPromise());
     }
 
     @Override
     public ChannelFuture writeFuture(@NotNull final byte[] bytes) {
-        return this.context.writeAndFlush(bytes);
+        return this.context.writeAndFlush(Unpooled.wrappedBuffer(bytes));
+    }
+
+    /**
+     * Writes the packet shared by many connections.
+     * The broadcast may be released by the caller right after the write even if it has not been completed yet.
+     *
+     * @param broadcast broadcast of the packet
+     */
+    public void write(@NotNull PacketBroadcast broadcast) {
+        writeFrame(broadcast, this.context.voidPromise(), true);
+    }
+
+    /**
+     * Writes the packet shared by many connections.
+     * The broadcast may be released by the caller right after the write even if it has not been completed yet.
+     *
+     * @param broadcast broadcast of the packet
+     * @return future of the write
+     */
+    public ChannelFuture writeFuture(@NotNull PacketBroadcast broadcast) {
+        return writeFrame(broadcast, this.context.newPromise(), true);
+    }
+
+    @Override
+    public void queue(@NotNull Packet packet) {
+        this.context.write(packet, context.voidPromise());
+    }
+
+    @Override
+    public void queue(@NotNull byte[] bytes) {
+        this.context.write(Unpooled.wrappedBuffer(bytes), context.voidPromise());
+    }
+
+    /**
+     * Writes the packet shared by many connections without flushing it.
+     * The broadcast may be released by the caller right after the write even if it has not been completed yet.
+     *
+     * @param broadcast broadcast of the packet
+     * @see #queue(Packet)
+     */
+    public void queue(@NotNull PacketBroadcast broadcast) {
+        writeFrame(broadcast, this.context.voidPromise(), false);
+    }
+
+    @Override
+    public void flush() {
+        this.context.flush();
+    }
+
+    /**
+     * Writes the shared frame of the broadcast matching this connection's compression
+     * bypassing the compressor and the prepender so that only the cipher is applied to it.
+     *
+     * @param broadcast broadcast of the packet
+     * @param promise promise of the write
+     * @param flush whether the channel should be flushed after the write
+     * @return future of the write
+     */
+    private ChannelFuture writeFrame(PacketBroadcast broadcast, ChannelPromise promise, boolean flush) {
+        ChannelPipeline pipeline = this.context.pipeline();
+        ChannelHandlerContext prepender = pipeline.context("prepender");
+        if (prepender == null) {
+            return promise.isVoid() ? promise : promise.setFailure(new ClosedChannelException());
+        }
+
+        ChannelHandler compressor = pipeline.get("compressor");
+        int threshold = compressor instanceof Compressor ? ((Compressor) compressor).getThreshold() : -1;
+        // the frame is shared by all the connections so none of the handlers may modify it
+        ByteBuf frame = broadcast.getFrame(threshold).retainedDuplicate().asReadOnly();
+        return flush ? prepender.writeAndFlush(frame, promise) : prepender.write(frame, promise);
     }
 
     @Override
@@ -120,20 +206,52 @@ public class NettyConnection implements Connection {
     }
 
     public void enableEncryption(@NonNull SecretKey key) {
+        enableEncryption(key, CipherCodec.getNative());
+    }
+
+    /**
+     * Enables encryption of this connection using ciphers of the given codec.
+     *
+     * @param key shared secret key
+     * @param codec codec used to create the ciphers
+     */
+    public void enableEncryption(@NonNull SecretKey key, @NonNull CipherCodec codec) {
+        StreamCipher decryptor = createNetCipherInstance(codec, false, key);
+        StreamCipher encryptor;
+        try {
+            encryptor = createNetCipherInstance(codec, true, key);
+        } catch (RuntimeException ex) {
+            decryptor.close();
+            throw ex;
+        }
         this.encrypted = true;
         this.context.channel().pipeline()
-                .addBefore("splitter", "decrypt", new CipherDecoder(createNetCipherInstance(2, key)))
-                .addBefore("prepender", "encrypt", new CipherEncoder(createNetCipherInstance(1, key)));
+                .addBefore("splitter", "decrypt", new CipherDecoder(decryptor))
+                .addBefore("prepender", "encrypt", new CipherEncoder(encryptor));
     }
 
     public void setCompressionThreshold(int threshold) {
+        setCompressionThreshold(threshold, null);
+    }
+
+    /**
+     * Sets the compression threshold negotiated with the client enabling or disabling compression.
+     *
+     * @param threshold minimal size of frames to compress or a negative number to disable compression
+     * @param adaptiveCompression settings of adaptive compression level and threshold
+     * or {@code null} to always use the default level and the given threshold,
+     * only applied when the compression gets enabled
+     */
+    public void setCompressionThreshold(int threshold, @Nullable AdaptiveCompressionSettings adaptiveCompression) {
         Channel channel = this.context.channel();
         if (threshold >= 0) {
             ChannelHandler handler = channel.pipeline().get("compressor");
             if (handler instanceof Compressor) {
                 ((Compressor) handler).setThreshold(threshold);
             } else {
-                channel.pipeline().addAfter("prepender", "compressor", new Compressor(threshold));
+                channel.pipeline().addAfter("prepender", "compressor", adaptiveCompression == null
+                        ? new Compressor(threshold)
+                        : new Compressor(CompressionCodec.getNative(), adaptiveCompression.newPolicy(threshold)));
             }
             handler = channel.pipeline().get("decompressor");
             if (handler instanceof Decompressor) {
@@ -151,11 +269,9 @@ public class NettyConnection implements Connection {
         }
     }
 
-    private Cipher createNetCipherInstance(int opMode, Key key) {
+    private StreamCipher createNetCipherInstance(CipherCodec codec, boolean encrypt, SecretKey key) {
         try {
-            Cipher cipher = Cipher.getInstance("AES/CFB8/NoPadding");
-            cipher.init(opMode, key, new IvParameterSpec(key.getEncoded()));
-            return cipher;
+            return encrypt ? codec.newEncryptor(key) : codec.newDecryptor(key);
         } catch (GeneralSecurityException generalsecurityexception) {
             throw new RuntimeException(generalsecurityexception);
         }
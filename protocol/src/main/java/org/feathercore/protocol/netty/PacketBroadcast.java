@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.concurrent.FastThreadLocal;
+import lombok.Getter;
+import lombok.NonNull;
+import org.feathercore.protocol.Connection;
+import org.feathercore.protocol.netty.codec.OutboundEncoder;
+import org.feathercore.protocol.netty.compression.CompressionCodec;
+import org.feathercore.protocol.netty.compression.CompressionCodec.FrameDeflater;
+import org.feathercore.protocol.packet.Packet;
+import org.feathercore.protocol.packet.PacketSizeEstimator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.zip.Deflater;
+
+/**
+ * Packet sent to many connections which is serialized only once and whose frames are compressed only once
+ * into buffers shared by all the connections so that only their ciphers are applied per connection.
+ * Frames are created lazily for each compression mode (none, below threshold, compressed) once requested.
+ *
+ * @apiNote frames are written bypassing the compressor and the prepender of connections
+ * so that compression level and threshold adjustments of connections are not applied to them
+ */
+public class PacketBroadcast extends AbstractReferenceCounted {
+
+    private static final int PLAIN = 0, UNCOMPRESSED = 1, COMPRESSED = 2;
+
+    /**
+     * Deflaters used to compress frames by threads creating them
+     */
+    private static final FastThreadLocal<FrameDeflater> DEFLATERS = new FastThreadLocal<FrameDeflater>() {
+        @Override
+        protected FrameDeflater initialValue() {
+            return CompressionCodec.getNative().newDeflater(Deflater.DEFAULT_COMPRESSION);
+        }
+
+        @Override
+        protected void onRemoval(FrameDeflater deflater) {
+            deflater.close();
+        }
+    };
+
+    @Getter private final Packet packet;
+    private final ByteBufAllocator allocator;
+
+    /**
+     * Serialized id and body of the packet
+     */
+    private final ByteBuf body;
+
+    /**
+     * Frames created by now for each of the compression modes
+     */
+    private final ByteBuf[] frames = new ByteBuf[3];
+
+    public PacketBroadcast(@NonNull Packet packet, @NonNull ByteBufAllocator allocator) {
+        this.packet = packet;
+        this.allocator = allocator;
+        this.body = allocator.ioBuffer(PacketSizeEstimator.estimateSize(packet));
+
+        NettyBuffer buffer = NettyBuffer.newInstance(this.body);
+        try {
+            buffer.writeVarInt(packet.getId());
+            packet.write(buffer);
+            PacketSizeEstimator.recordSize(packet, this.body.readableBytes());
+        } catch (RuntimeException | Error e) {
+            this.body.release();
+            throw e;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    public PacketBroadcast(@NonNull Packet packet) {
+        this(packet, ByteBufAllocator.DEFAULT);
+    }
+
+    /**
+     * Writes the packet to all the given connections serializing it only once.
+     * Connections other than {@link NettyConnection}s get the packet itself written.
+     *
+     * @param packet packet to write
+     * @param connections connections to write the packet to
+     */
+    public static void broadcast(@NonNull Packet packet, @NonNull Iterable<? extends Connection> connections) {
+        PacketBroadcast broadcast = new PacketBroadcast(packet);
+        try {
+            for (Connection connection : connections) {
+                if (connection instanceof NettyConnection) {
+                    ((NettyConnection) connection).write(broadcast);
+                } else {
+                    connection.write(packet);
+                }
+            }
+        } finally {
+            broadcast.release();
+        }
+    }
+
+    /**
+     * Gets the shared frame (prepended with its length) of the packet for the given compression threshold
+     * creating it if it has not been created yet.
+     *
+     * @param threshold compression threshold of the connection or a negative number if compression is disabled
+     * @return shared frame which should not be modified nor released, its duplicate should be written instead
+     */
+    @NotNull
+    public synchronized ByteBuf getFrame(int threshold) {
+        if (refCnt() == 0) {
+            throw new IllegalStateException("Broadcast has already been released");
+        }
+
+        int size = this.body.readableBytes();
+        int mode = threshold < 0 ? PLAIN : size < threshold ? UNCOMPRESSED : COMPRESSED;
+
+        ByteBuf frame = this.frames[mode];
+        if (frame == null) {
+            this.frames[mode] = frame = newFrame(mode, size);
+        }
+        return frame;
+    }
+
+    private ByteBuf newFrame(int mode, int size) {
+        ByteBuf frame = OutboundEncoder.allocateFrame(this.allocator, mode == COMPRESSED ? size / 2 : size + 1);
+        try {
+            if (mode == PLAIN) {
+                frame.writeBytes(this.body, this.body.readerIndex(), size);
+            } else {
+                NettyBuffer buffer = NettyBuffer.newInstance(frame);
+                try {
+                    if (mode == UNCOMPRESSED) {
+                        buffer.writeVarInt(0);
+                        frame.writeBytes(this.body, this.body.readerIndex(), size);
+                    } else {
+                        buffer.writeVarInt(size);
+                        DEFLATERS.get().deflate(this.body.duplicate(), frame);
+                    }
+                } finally {
+                    buffer.release();
+                }
+            }
+
+            return OutboundEncoder.prependLength(frame);
+        } catch (RuntimeException | Error e) {
+            frame.release();
+            throw e;
+        }
+    }
+
+    @Override
+    protected synchronized void deallocate() {
+        this.body.release();
+        for (ByteBuf frame : this.frames) {
+            if (frame != null) {
+                frame.release();
+            }
+        }
+    }
+
+    @Override
+    public PacketBroadcast touch(Object hint) {
+        this.body.touch(hint);
+        return this;
+    }
+
+    @Override
+    public PacketBroadcast retain() {
+        super.retain();
+        return this;
+    }
+}
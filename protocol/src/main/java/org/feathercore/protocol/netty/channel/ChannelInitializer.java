@@ -18,6 +18,7 @@ package org.feathercore.protocol.netty.channel;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.Logger;
@@ -26,12 +27,16 @@ import org.feathercore.protocol.netty.HandlerBoss;
 import org.feathercore.protocol.netty.codec.InboundDecoder;
 import org.feathercore.protocol.netty.codec.InboundPacketDecoder;
 import org.feathercore.protocol.netty.codec.OutboundEncoder;
+import org.feathercore.protocol.netty.codec.OutboundPacketEncoder;
 import org.feathercore.protocol.netty.codec.ServerPingAdapter;
 
 import java.lang.ref.SoftReference;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Flushes of the channel are consolidated so that packets written during a read or a single event loop iteration
+ * (e.g. all packets of a game tick written from another thread) are sent by a single {@code writev} call.
  */
 @RequiredArgsConstructor
 public class ChannelInitializer extends io.netty.channel.ChannelInitializer<Channel> {
@@ -43,11 +48,15 @@ public class ChannelInitializer extends io.netty.channel.ChannelInitializer<Chan
     protected void initChannel(Channel ch) {
         ch.config().setOption(ChannelOption.TCP_NODELAY, true);
         ch.pipeline()
+                .addLast("flush_consolidation", new FlushConsolidationHandler(
+                        FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true
+                ))
                 .addLast("timeout", new ReadTimeoutHandler(30))
                 .addLast("legacy_query", new ServerPingAdapter())
                 .addLast("splitter", new InboundDecoder())
                 .addLast("decoder", new InboundPacketDecoder())
                 .addLast("prepender", new OutboundEncoder())
+                .addLast("encoder", new OutboundPacketEncoder())
                 .addLast("handler_boss", new HandlerBoss(serverSoftReference, logger));
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty.cipher;
+
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * Implementation of the AES/CFB8 stream cipher used by connections with encryption enabled
+ * whose initialization vector is the key itself.
+ * Implementations other than the {@link #getDefault() default one} (e.g. JNI-backed ones using AES-NI) may be provided
+ * as services of this interface ({@code META-INF/services/org.feathercore.protocol.netty.cipher.CipherCodec})
+ * and should produce and accept the same bytes as the JCE {@code AES/CFB8/NoPadding} cipher
+ * so that the wire format is unchanged.
+ */
+public interface CipherCodec {
+
+    /**
+     * Checks whether this codec may be used in the current environment (e.g. its native library is loaded).
+     *
+     * @return {@code true} if this codec is available and {@code false} otherwise
+     */
+    boolean isAvailable();
+
+    /**
+     * Creates a new cipher encrypting the data which should be {@link StreamCipher#close() closed}
+     * once no longer needed.
+     *
+     * @param key shared secret key
+     * @return created cipher
+     * @throws GeneralSecurityException if the key is not a valid AES key
+     */
+    @NotNull StreamCipher newEncryptor(@NonNull SecretKey key) throws GeneralSecurityException;
+
+    /**
+     * Creates a new cipher decrypting the data which should be {@link StreamCipher#close() closed}
+     * once no longer needed.
+     *
+     * @param key shared secret key
+     * @return created cipher
+     * @throws GeneralSecurityException if the key is not a valid AES key
+     */
+    @NotNull StreamCipher newDecryptor(@NonNull SecretKey key) throws GeneralSecurityException;
+
+    /**
+     * Gets the first available codec provided as a service falling back to the {@link #getDefault() default one}.
+     * The codec is only looked up once.
+     *
+     * @return the most efficient available codec
+     */
+    static CipherCodec getNative() {
+        return CipherCodecLoader.NATIVE;
+    }
+
+    /**
+     * Gets the codec based on the JCE {@link javax.crypto.Cipher} which is always available.
+     *
+     * @return default codec
+     */
+    static CipherCodec getDefault() {
+        return JceCipherCodec.INSTANCE;
+    }
+
+    /**
+     * Stream cipher of a single direction of a single channel.
+     */
+    interface StreamCipher extends AutoCloseable {
+
+        /**
+         * Translates all remaining bytes of the input buffer writing exactly the same number of bytes
+         * to the output buffer. The buffers may share the same memory for the data to be translated in place.
+         *
+         * @param in input buffer whose remaining bytes get read
+         * @param out output buffer
+         * @throws ShortBufferException if the output buffer has less remaining bytes than the input one
+         */
+        void update(@NonNull ByteBuffer in, @NonNull ByteBuffer out) throws ShortBufferException;
+
+        /**
+         * Releases the resources of this cipher.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.cipher;
+
+import lombok.experimental.UtilityClass;
+import org.feathercore.protocol.netty.util.CodecLoader;
+
+/**
+ * Lazy holder of the codec returned by {@link CipherCodec#getNative()}.
+ */
+@UtilityClass
+class CipherCodecLoader {
+
+    final CipherCodec NATIVE = CodecLoader.load(
+            CipherCodec.class, CipherCodec::isAvailable, CipherCodec::getDefault
+    );
+}
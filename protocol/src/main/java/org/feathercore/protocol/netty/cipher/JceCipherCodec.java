@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty.cipher;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * Codec based on the JCE {@code AES/CFB8/NoPadding} cipher.
+ * The cipher performs one AES block operation per byte so it is the main cost of encrypted connections,
+ * thus a {@link CipherCodec#getNative() native} codec should be preferred when one is provided.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JceCipherCodec implements CipherCodec {
+
+    public static final JceCipherCodec INSTANCE = new JceCipherCodec();
+
+    private static final String TRANSFORMATION = "AES/CFB8/NoPadding";
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public @NotNull StreamCipher newEncryptor(@NonNull final SecretKey key) throws GeneralSecurityException {
+        return new JceStreamCipher(newCipher(Cipher.ENCRYPT_MODE, key));
+    }
+
+    @Override
+    public @NotNull StreamCipher newDecryptor(@NonNull final SecretKey key) throws GeneralSecurityException {
+        return new JceStreamCipher(newCipher(Cipher.DECRYPT_MODE, key));
+    }
+
+    private static Cipher newCipher(final int opMode, final SecretKey key) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(opMode, key, new IvParameterSpec(key.getEncoded()));
+        return cipher;
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class JceStreamCipher implements StreamCipher {
+
+        private final Cipher cipher;
+
+        @Override
+        public void update(@NonNull final ByteBuffer in, @NonNull final ByteBuffer out) throws ShortBufferException {
+            // the cipher is copy-safe so the input and the output may share the same memory
+            final int size = in.remaining();
+            final int translated = cipher.update(in, out);
+            if (translated != size) {
+                throw new ShortBufferException("Cipher produced " + translated + " bytes instead of " + size);
+            }
+        }
+
+        @Override
+        public void close() {
+            // JCE ciphers hold no resources other than memory
+        }
+    }
+}
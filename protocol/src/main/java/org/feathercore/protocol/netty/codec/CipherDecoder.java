@@ -19,8 +19,8 @@ package org.feathercore.protocol.netty.codec;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
+import org.feathercore.protocol.netty.cipher.CipherCodec.StreamCipher;
 
-import javax.crypto.Cipher;
 import javax.crypto.ShortBufferException;
 import java.util.List;
 
@@ -31,13 +31,22 @@ public class CipherDecoder extends MessageToMessageDecoder<ByteBuf> {
 
     private final CipherTranslator translator;
 
-    public CipherDecoder(Cipher cipher) {
+    public CipherDecoder(StreamCipher cipher) {
         this.translator = new CipherTranslator(cipher);
     }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws ShortBufferException {
-        out.add(this.translator.decipher(ctx, in));
+        out.add(this.translator.translate(ctx, in));
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            this.translator.close();
+        } finally {
+            super.handlerRemoved(ctx);
+        }
     }
 
 }
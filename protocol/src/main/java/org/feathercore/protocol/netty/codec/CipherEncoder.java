@@ -18,25 +18,35 @@ package org.feathercore.protocol.netty.codec;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import org.feathercore.protocol.netty.cipher.CipherCodec.StreamCipher;
 
-import javax.crypto.Cipher;
 import javax.crypto.ShortBufferException;
+import java.util.List;
 
 /**
  * Created by k.shandurenko on 12/04/2019
  */
-public class CipherEncoder extends MessageToByteEncoder<ByteBuf> {
+public class CipherEncoder extends MessageToMessageEncoder<ByteBuf> {
 
     private final CipherTranslator translator;
 
-    public CipherEncoder(Cipher cipher) {
+    public CipherEncoder(StreamCipher cipher) {
         this.translator = new CipherTranslator(cipher);
     }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf in, ByteBuf out) throws ShortBufferException {
-        this.translator.cipher(in, out);
+    protected void encode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws ShortBufferException {
+        out.add(this.translator.translate(ctx, in));
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            this.translator.close();
+        } finally {
+            super.handlerRemoved(ctx);
+        }
     }
 
 }
@@ -18,52 +18,71 @@ package org.feathercore.protocol.netty.codec;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import org.feathercore.protocol.netty.cipher.CipherCodec.StreamCipher;
+import org.feathercore.protocol.netty.util.BufferOwnership;
 
-import javax.crypto.Cipher;
 import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Applies the stream cipher to buffers via their NIO views.
+ * Buffers {@link BufferOwnership#isExclusivelyOwned(ByteBuf) exclusively owned} by the message are translated in place
+ * (as the cipher does not change the size), others (e.g. duplicates of shared broadcast frames)
+ * are translated into new buffers of the channel's allocator.
  */
 class CipherTranslator {
 
-    private final Cipher cipher;
-    private byte[] temporaryArray = new byte[0];
-    private byte[] temporaryArray2 = new byte[0];
+    private final StreamCipher cipher;
 
-    CipherTranslator(Cipher cipher) {
+    CipherTranslator(StreamCipher cipher) {
         this.cipher = cipher;
     }
 
-    private byte[] readViaTemporary(ByteBuf buffer) {
-        int size = buffer.readableBytes();
+    /**
+     * Translates the readable bytes of the buffer.
+     *
+     * @param ctx context of the channel
+     * @param in buffer to translate whose readable bytes get read
+     * @return buffer of the translated bytes which should be released by the caller,
+     * this is the retained input buffer if it has been translated in place
+     * @throws ShortBufferException if the cipher fails to write the translated bytes
+     */
+    ByteBuf translate(ChannelHandlerContext ctx, ByteBuf in) throws ShortBufferException {
+        int size = in.readableBytes();
+        int readerIndex = in.readerIndex();
 
-        if (this.temporaryArray.length < size) {
-            this.temporaryArray = new byte[size];
+        if (in.nioBufferCount() == 1 && BufferOwnership.isExclusivelyOwned(in)) {
+            // the cipher is copy-safe so the input and the output may share the same memory
+            this.cipher.update(in.nioBuffer(readerIndex, size), in.internalNioBuffer(readerIndex, size));
+            return in.retain();
         }
 
-        buffer.readBytes(this.temporaryArray, 0, size);
-        return this.temporaryArray;
-    }
-
-    ByteBuf decipher(ChannelHandlerContext ctx, ByteBuf buffer) throws ShortBufferException {
-        int size = buffer.readableBytes();
-        byte[] data = this.readViaTemporary(buffer);
-        ByteBuf bytebuf = ctx.alloc().heapBuffer(this.cipher.getOutputSize(size));
-        bytebuf.writerIndex(this.cipher.update(data, 0, size, bytebuf.array(), bytebuf.arrayOffset()));
-        return bytebuf;
-    }
+        ByteBuf out = ctx.alloc().ioBuffer(size);
+        try {
+            ByteBuffer output = out.internalNioBuffer(0, size);
+            for (ByteBuffer input : in.nioBuffers(readerIndex, size)) {
+                this.cipher.update(input, output);
+            }
+            out.writerIndex(size);
+            in.skipBytes(size);
 
-    void cipher(ByteBuf in, ByteBuf out) throws ShortBufferException {
-        int size = in.readableBytes();
-        byte[] data = this.readViaTemporary(in);
-        int outputSize = this.cipher.getOutputSize(size);
-
-        if (this.temporaryArray2.length < outputSize) {
-            this.temporaryArray2 = new byte[outputSize];
+            ByteBuf result = out;
+            out = null;
+            return result;
+        } finally {
+            if (out != null) {
+                out.release();
+            }
         }
+    }
 
-        out.writeBytes(this.temporaryArray2, 0, this.cipher.update(data, 0, size, this.temporaryArray2));
+    /**
+     * Releases the resources of the cipher.
+     */
+    void close() {
+        this.cipher.close();
     }
 
 }
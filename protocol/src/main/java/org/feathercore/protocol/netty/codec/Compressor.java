@@ -19,23 +19,66 @@ package org.feathercore.protocol.netty.codec;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
-import lombok.Setter;
+import lombok.Getter;
+import lombok.NonNull;
 import org.feathercore.protocol.netty.NettyBuffer;
+import org.feathercore.protocol.netty.compression.AdaptiveCompressionPolicy;
+import org.feathercore.protocol.netty.compression.CompressionCodec;
+import org.feathercore.protocol.netty.compression.CompressionCodec.FrameDeflater;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.zip.Deflater;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Deflates outbound frames using the deflater of the {@link CompressionCodec}
+ * which streams them from the input buffer straight into the output one.
+ * If an {@link AdaptiveCompressionPolicy} is used then the compression level and threshold follow it.
  */
 public class Compressor extends MessageToByteEncoder<ByteBuf> {
 
-    private final byte[] buffer = new byte[8192];
-    private final Deflater deflater;
-    @Setter private int threshold;
+    private final FrameDeflater deflater;
+    @Nullable private final AdaptiveCompressionPolicy policy;
+    /**
+     * Minimal size of frames to compress which may be raised by the policy
+     */
+    @Getter private int threshold;
 
     public Compressor(int threshold) {
+        this(threshold, CompressionCodec.getNative());
+    }
+
+    public Compressor(int threshold, @NonNull CompressionCodec codec) {
+        this(codec, threshold, null);
+    }
+
+    public Compressor(@NonNull CompressionCodec codec, @NonNull AdaptiveCompressionPolicy policy) {
+        this(codec, policy.getThreshold(), policy);
+    }
+
+    private Compressor(CompressionCodec codec, int threshold, @Nullable AdaptiveCompressionPolicy policy) {
         this.threshold = threshold;
-        this.deflater = new Deflater();
+        this.policy = policy;
+        this.deflater = codec.newDeflater(policy == null ? Deflater.DEFAULT_COMPRESSION : policy.getLevel());
+    }
+
+    /**
+     * Sets the compression threshold negotiated with the client.
+     *
+     * @param threshold minimal size of frames to compress
+     */
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+        if (this.policy != null) {
+            this.policy.setMinThreshold(threshold);
+        }
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, ByteBuf msg, boolean preferDirect) throws Exception {
+        // the length of the compressed frame is prepended right into the reserved space
+        return OutboundEncoder.reserveHeader(super.allocateBuffer(ctx, msg, preferDirect));
     }
 
     @Override
@@ -46,20 +89,33 @@ public class Compressor extends MessageToByteEncoder<ByteBuf> {
         if (size < this.threshold) {
             buffer.writeVarInt(0);
             buffer.writeBytes(in);
+            if (this.policy != null && this.policy.recordUncompressed(ctx, size)) {
+                applyPolicy();
+            }
         } else {
-            byte[] temporary = new byte[size];
-            in.readBytes(temporary);
-            buffer.writeVarInt(temporary.length);
-            this.deflater.setInput(temporary, 0, size);
-            this.deflater.finish();
-
-            while (!this.deflater.finished()) {
-                int deflatedSize = this.deflater.deflate(this.buffer);
-                buffer.writeBytes(this.buffer, 0, deflatedSize);
+            buffer.writeVarInt(size);
+            if (this.policy == null) {
+                this.deflater.deflate(in, out);
+            } else {
+                int writerIndex = out.writerIndex();
+                long start = System.nanoTime();
+                this.deflater.deflate(in, out);
+                long nanos = System.nanoTime() - start;
+                if (this.policy.recordCompressed(ctx, size, out.writerIndex() - writerIndex, nanos)) {
+                    applyPolicy();
+                }
             }
-
-            this.deflater.reset();
         }
     }
 
+    private void applyPolicy() {
+        this.deflater.setLevel(this.policy.getLevel());
+        this.threshold = this.policy.getThreshold();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        this.deflater.close();
+    }
+
 }
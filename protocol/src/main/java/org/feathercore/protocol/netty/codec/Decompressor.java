@@ -17,31 +17,42 @@
 package org.feathercore.protocol.netty.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.DecoderException;
+import lombok.NonNull;
 import lombok.Setter;
-import lombok.var;
 import org.feathercore.protocol.netty.NettyBuffer;
+import org.feathercore.protocol.netty.compression.CompressionCodec;
+import org.feathercore.protocol.netty.compression.CompressionCodec.FrameInflater;
+import org.feathercore.protocol.netty.compression.JdkCompressionCodec;
 
 import java.util.List;
 import java.util.zip.DataFormatException;
-import java.util.zip.Inflater;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Inflates inbound frames using the inflater of the {@link CompressionCodec}
+ * straight into pooled buffers of the channel's allocator.
  */
 public class Decompressor extends ByteToMessageDecoder {
 
     private static final int PROTOCOL_MAXIMUM = 2097152;
 
-    private final Inflater inflater;
+    private final FrameInflater inflater;
+    private final boolean preferDirect;
     @Setter private int threshold;
 
     public Decompressor(int threshold) {
+        this(threshold, CompressionCodec.getNative());
+    }
+
+    public Decompressor(int threshold, @NonNull CompressionCodec codec) {
         this.threshold = threshold;
-        this.inflater = new Inflater();
+        this.inflater = codec.newInflater();
+        // the JDK codec can only inflate into direct buffers without an intermediate copy since Java 11
+        this.preferDirect = !(codec instanceof JdkCompressionCodec) || JdkCompressionCodec.isDirectInflationSupported();
     }
 
     @Override
@@ -52,7 +63,7 @@ public class Decompressor extends ByteToMessageDecoder {
             int size = buffer.readVarInt();
 
             if (size == 0) {
-                out.add(buffer.readBytes(buffer.readableBytes()));
+                out.add(in.readRetainedSlice(in.readableBytes()));
                 return;
             }
 
@@ -66,17 +77,26 @@ public class Decompressor extends ByteToMessageDecoder {
                                 + PROTOCOL_MAXIMUM);
             }
 
-            var bytes = new byte[buffer.readableBytes()];
-            buffer.readBytes(bytes);
-            this.inflater.setInput(bytes);
+            ByteBuf inflated = this.preferDirect
+                    ? ctx.alloc().directBuffer(size, size) : ctx.alloc().heapBuffer(size, size);
+            try {
+                this.inflater.inflate(in, inflated);
 
-            // reuse variable
-            bytes = new byte[size];
-            this.inflater.inflate(bytes);
-            out.add(Unpooled.wrappedBuffer(bytes));
-
-            this.inflater.reset();
+                out.add(inflated);
+                inflated = null;
+            } finally {
+                if (inflated != null) {
+                    inflated.release();
+                    // the frame is discarded so that its remainder does not get decoded as another frame
+                    in.skipBytes(in.readableBytes());
+                }
+            }
         }
     }
 
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) {
+        this.inflater.close();
+    }
+
 }
@@ -17,50 +17,77 @@
 package org.feathercore.protocol.netty.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
-import org.feathercore.protocol.netty.NettyBuffer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
 import org.feathercore.protocol.packet.exception.WrongPacketSizeException;
 
 import java.util.List;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Splits inbound bytes into frames prefixed with their varint length.
+ * The length is decoded in place and kept until the whole frame arrives
+ * so that frames received in many segments do not get their header rescanned.
  */
+@FieldDefaults(level = AccessLevel.PRIVATE)
 public class InboundDecoder extends ByteToMessageDecoder {
 
+    /**
+     * Maximal size of the length header in bytes
+     */
+    private static final int MAX_HEADER_SIZE = 3;
+
+    /**
+     * Length of the frame whose header has already been read or {@code -1} if it has not been read yet
+     */
+    int frameLength = -1;
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
-        if (!in.isReadable()) {
+        if (frameLength == -1 && (frameLength = readFrameLength(in)) == -1) {
             return;
         }
 
-        int origReaderIndex = in.readerIndex();
-        for (int i = 0; i < 3; i++) {
-            if (!in.isReadable()) {
-                in.readerIndex(origReaderIndex);
-                return;
-            }
+        if (in.readableBytes() < frameLength) {
+            return;
+        }
 
-            byte read = in.readByte();
-            if (read >= 0) {
-                in.readerIndex(origReaderIndex);
-                // TODO: Don't create NettyBuffer just for reading varint?
-                int packetLength = NettyBuffer.newInstance(in).readVarInt();
-                if (packetLength == 0) {
-                    return;
-                }
+        // empty frames are skipped
+        if (frameLength != 0) {
+            out.add(in.readRetainedSlice(frameLength));
+        }
+        frameLength = -1;
+    }
 
-                if (in.readableBytes() < packetLength) {
-                    in.readerIndex(origReaderIndex);
-                    return;
-                }
+    /**
+     * Reads the varint length header of the frame if it is fully available.
+     *
+     * @param in buffer to read the header from
+     * @return length of the frame or {@code -1} if the header is not fully available yet
+     * @throws WrongPacketSizeException if the header exceeds its maximal size
+     */
+    private static int readFrameLength(ByteBuf in) {
+        int readerIndex = in.readerIndex();
+        int available = Math.min(in.readableBytes(), MAX_HEADER_SIZE);
 
-                out.add(in.readRetainedSlice(packetLength));
-                return;
+        int length = 0;
+        for (int i = 0; i < available; i++) {
+            byte read = in.getByte(readerIndex + i);
+            length |= (read & 0x7F) << (i * 7);
+            if (read >= 0) {
+                in.readerIndex(readerIndex + i + 1);
+                return length;
             }
         }
-        throw new WrongPacketSizeException("Packet size doesn't fit varint: it exceeds it's maximal size");
+
+        if (available == MAX_HEADER_SIZE) {
+            // the stream can not be split any further so its remainder is discarded rather than decoded again
+            in.skipBytes(in.readableBytes());
+            throw new WrongPacketSizeException("Packet size doesn't fit varint: it exceeds it's maximal size");
+        }
+        return -1;
     }
 }
@@ -19,16 +19,23 @@ package org.feathercore.protocol.netty.codec;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import org.feathercore.eventbus.EventManager;
+import org.feathercore.protocol.event.PacketReceiveEvent;
 import org.feathercore.protocol.netty.HandlerBoss;
 import org.feathercore.protocol.netty.NettyBuffer;
 import org.feathercore.protocol.netty.util.NettyAttributes;
+import org.feathercore.protocol.packet.LazyPacket;
 import org.feathercore.protocol.packet.Packet;
 import org.feathercore.protocol.packet.exception.UnknownPacketIdException;
+import org.feathercore.protocol.registry.PacketRegistry;
 
 import java.util.List;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Packets which have no handler in the current registry and no {@link PacketReceiveEvent} listeners
+ * are dropped before being allocated and counted by the {@link PacketRegistry#packetDropped(int) registry}.
  */
 public class InboundPacketDecoder extends ByteToMessageDecoder {
     @Override
@@ -39,11 +46,23 @@ public class InboundPacketDecoder extends ByteToMessageDecoder {
         if (boss == null) {
             throw new IllegalStateException("Could not retrieve context handler boss");
         }
-        Packet packet = boss.getPacketRegistry().createById(packetID);
+        PacketRegistry<?> registry = boss.getPacketRegistry();
+        if (!registry.hasHandler(packetID) && registry.getTypeById(packetID) != null
+            && !EventManager.getGlobal().hasListeners(PacketReceiveEvent.class)) {
+            // nothing would observe the packet so its frame is dropped without allocating it
+            in.skipBytes(in.readableBytes());
+            registry.packetDropped(packetID);
+            return;
+        }
+        Packet packet = registry.createById(packetID);
         if (packet == null) {
             throw new UnknownPacketIdException("Packet with unknown id: " + packetID);
         }
-        packet.read(buffer);
+        if (packet instanceof LazyPacket) {
+            ((LazyPacket) packet).readLazily(in);
+        } else {
+            packet.read(buffer);
+        }
         out.add(packet);
     }
 
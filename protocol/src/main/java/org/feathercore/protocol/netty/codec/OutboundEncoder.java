@@ -17,30 +17,118 @@
 package org.feathercore.protocol.netty.codec;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
-import org.feathercore.protocol.netty.NettyBuffer;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import org.feathercore.protocol.netty.util.BufferOwnership;
+
+import java.util.List;
 
 /**
  * Created by k.shandurenko on 12/04/2019
+ * <p>
+ * Prepends outbound frames with their varint length without copying them.
+ * If the frame has its header space reserved (see {@link #allocateFrame(ByteBufAllocator, int)})
+ * then the length is written right into it, otherwise the frame is composed with a separate header buffer.
  */
-public class OutboundEncoder extends MessageToByteEncoder<ByteBuf> {
+public class OutboundEncoder extends MessageToMessageEncoder<ByteBuf> {
+
+    /**
+     * Maximal size of the length header in bytes
+     */
+    public static final int MAX_HEADER_SIZE = 3;
+
+    /**
+     * Allocates a buffer for an outbound frame reserving space for its length header
+     * so that the frame does not have to be copied or composed when its length gets prepended.
+     *
+     * @param allocator allocator of the buffer
+     * @param initialCapacity initial capacity of the frame's body
+     * @return buffer whose reader and writer indexes are both set after the reserved header space
+     */
+    public static ByteBuf allocateFrame(ByteBufAllocator allocator, int initialCapacity) {
+        return reserveHeader(allocator.ioBuffer(MAX_HEADER_SIZE + initialCapacity));
+    }
+
+    /**
+     * Reserves space for the length header in the given empty buffer.
+     *
+     * @param buffer empty buffer of the outbound frame
+     * @return the given buffer whose reader and writer indexes are both set after the reserved header space
+     */
+    public static ByteBuf reserveHeader(ByteBuf buffer) {
+        buffer.ensureWritable(MAX_HEADER_SIZE);
+        return buffer.writerIndex(buffer.writerIndex() + MAX_HEADER_SIZE).readerIndex(buffer.writerIndex());
+    }
+
+    /**
+     * Prepends the frame with its length writing it into the reserved header space.
+     *
+     * @param frame buffer of the frame with its header space reserved
+     * @return the given buffer whose readable bytes now start with the header
+     * @throws IllegalArgumentException if the frame is too large or its header space is not reserved
+     */
+    public static ByteBuf prependLength(ByteBuf frame) {
+        int length = frame.readableBytes();
+        int headerSize = checkHeaderSize(length);
+        if (!hasReservedHeader(frame, headerSize)) {
+            throw new IllegalArgumentException("Frame has no reserved header space");
+        }
+
+        int headerIndex = frame.readerIndex() - headerSize;
+        setVarInt(frame, headerIndex, length);
+        return frame.readerIndex(headerIndex);
+    }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf in, ByteBuf out) {
-        int readable = in.readableBytes();
-        int readableSize = getVarIntSize(readable);
-        if (readableSize > 3) {
+    protected void encode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        int length = in.readableBytes();
+        int headerSize = checkHeaderSize(length);
+
+        if (hasReservedHeader(in, headerSize)) {
+            int headerIndex = in.readerIndex() - headerSize;
+            setVarInt(in, headerIndex, length);
+            in.readerIndex(headerIndex);
+            out.add(in.retain());
+        } else {
+            ByteBuf header = ctx.alloc().ioBuffer(headerSize);
+            setVarInt(header, 0, length);
+            header.writerIndex(headerSize);
+            out.add(ctx.alloc().compositeBuffer(2).addComponents(true, header, in.retain()));
+        }
+    }
+
+    /**
+     * Checks whether the header may be written right before the readable bytes of the given buffer.
+     * Only buffers {@link BufferOwnership#isExclusivelyOwned(ByteBuf) exclusively owned} by the frame are written into
+     * as the space before the readable bytes of derived buffers may belong to other frames.
+     *
+     * @param in buffer of the frame
+     * @param headerSize size of the header
+     * @return {@code true} if the header may be written into the buffer and {@code false} otherwise
+     */
+    private static boolean hasReservedHeader(ByteBuf in, int headerSize) {
+        return in.readerIndex() >= headerSize && BufferOwnership.isExclusivelyOwned(in);
+    }
+
+    private static int checkHeaderSize(int length) {
+        int headerSize = getVarIntSize(length);
+        if (headerSize > MAX_HEADER_SIZE) {
             throw new IllegalArgumentException(
-                    "Packet size doesn't fit varint: it requires " + readableSize + " bytes");
+                    "Packet size doesn't fit varint: it requires " + headerSize + " bytes");
+        }
+        return headerSize;
+    }
+
+    private static void setVarInt(ByteBuf buffer, int index, int value) {
+        while ((value & -128) != 0) {
+            buffer.setByte(index++, value & 127 | 128);
+            value >>>= 7;
         }
-        NettyBuffer buffer = NettyBuffer.newInstance(out);
-        buffer.ensureWritable(readable + readableSize);
-        buffer.writeVarInt(readableSize);
-        buffer.writeBytes(in, in.readerIndex(), readable);
+        buffer.setByte(index, value);
     }
 
-    private int getVarIntSize(int input) {
+    private static int getVarIntSize(int input) {
         for (int i = 1; i < 5; ++i) {
             if ((input & -1 << i * 7) == 0) {
                 return i;
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import org.feathercore.protocol.netty.NettyBuffer;
+import org.feathercore.protocol.packet.Packet;
+import org.feathercore.protocol.packet.PacketSizeEstimator;
+
+/**
+ * Serializes outbound packets (their id followed by their body) straight into buffers of the channel's allocator.
+ * The header space of the frame is reserved so that its length may be prepended without copying it
+ * and the buffers are allocated at the size {@link PacketSizeEstimator estimated} for the packets.
+ */
+public class OutboundPacketEncoder extends MessageToByteEncoder<Packet> {
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Packet msg, boolean preferDirect) {
+        int capacity = OutboundEncoder.MAX_HEADER_SIZE + PacketSizeEstimator.estimateSize(msg);
+        ByteBuf buffer = preferDirect ? ctx.alloc().ioBuffer(capacity) : ctx.alloc().heapBuffer(capacity);
+        return OutboundEncoder.reserveHeader(buffer);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Packet packet, ByteBuf out) {
+        NettyBuffer buffer = NettyBuffer.newInstance(out);
+        try {
+            buffer.writeVarInt(packet.getId());
+            packet.write(buffer);
+            PacketSizeEstimator.recordSize(packet, out.readableBytes());
+        } finally {
+            buffer.release();
+        }
+    }
+
+}
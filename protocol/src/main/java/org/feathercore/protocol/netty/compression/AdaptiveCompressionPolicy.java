@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty.compression;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+
+/**
+ * Compression level and threshold of a single connection adjusted by the observed compression ratio,
+ * deflating time per byte and backlog of the connection's event loop.
+ * Under pressure the level is lowered and the threshold is raised trading bandwidth for latency,
+ * without pressure they are gradually restored within the {@link AdaptiveCompressionSettings bounds}.
+ *
+ * @apiNote the threshold never gets lower than the one negotiated with the client
+ * as clients reject compressed frames smaller than it
+ */
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AdaptiveCompressionPolicy {
+
+    /**
+     * Minimal step of raising the threshold
+     */
+    private static final int MIN_THRESHOLD_STEP = 64;
+
+    @NonNull final AdaptiveCompressionSettings settings;
+
+    @Getter int minThreshold;
+    @Getter int level, threshold;
+
+    int frames;
+    long bytes, deflatedBytes, compressedBytes, nanos;
+
+    public AdaptiveCompressionPolicy(@NonNull AdaptiveCompressionSettings settings, int threshold) {
+        this.settings = settings;
+        this.level = settings.getMaxLevel();
+        setMinThreshold(threshold);
+    }
+
+    /**
+     * Sets the threshold negotiated with the client resetting the current threshold to it.
+     *
+     * @param minThreshold compression threshold negotiated with the client
+     */
+    public void setMinThreshold(int minThreshold) {
+        this.minThreshold = minThreshold;
+        this.threshold = minThreshold;
+    }
+
+    /**
+     * Records the compression of a single frame adjusting the level and the threshold once per window.
+     *
+     * @param ctx context of the connection's channel
+     * @param size original size of the frame
+     * @param compressedSize compressed size of the frame
+     * @param nanos time spent deflating the frame
+     * @return {@code true} if the level or the threshold has been changed and {@code false} otherwise
+     */
+    public boolean recordCompressed(@NonNull ChannelHandlerContext ctx, int size, int compressedSize, long nanos) {
+        this.deflatedBytes += size;
+        this.compressedBytes += compressedSize;
+        this.nanos += nanos;
+
+        return record(ctx, size);
+    }
+
+    /**
+     * Records a single frame sent without compression adjusting the level and the threshold once per window.
+     *
+     * @param ctx context of the connection's channel
+     * @param size size of the frame
+     * @return {@code true} if the level or the threshold has been changed and {@code false} otherwise
+     */
+    public boolean recordUncompressed(@NonNull ChannelHandlerContext ctx, int size) {
+        return record(ctx, size);
+    }
+
+    private boolean record(ChannelHandlerContext ctx, int size) {
+        this.bytes += size;
+        if (++this.frames < this.settings.getWindow() || this.bytes == 0) {
+            return false;
+        }
+
+        // deflating time is spread over all bytes as this is the cost of sending them
+        double nanosPerByte = (double) this.nanos / this.bytes;
+        double ratio = this.deflatedBytes == 0 ? 0 : (double) this.compressedBytes / this.deflatedBytes;
+        this.frames = 0;
+        this.bytes = this.deflatedBytes = this.compressedBytes = this.nanos = 0;
+
+        int previousLevel = this.level;
+        int previousThreshold = this.threshold;
+        if (nanosPerByte > this.settings.getTargetNanosPerByte()
+                || getPendingTasks(ctx) > this.settings.getMaxPendingTasks()) {
+            this.level = Math.max(this.settings.getMinLevel(), this.level - 1);
+            this.threshold = Math.max(this.minThreshold, Math.min(
+                    this.settings.getMaxThreshold(), Math.max(this.threshold * 2, MIN_THRESHOLD_STEP)
+            ));
+        } else if (ratio > this.settings.getMaxRatio()) {
+            this.level = Math.max(this.settings.getMinLevel(), this.level - 1);
+        } else if (nanosPerByte < this.settings.getTargetNanosPerByte() / 2.0) {
+            this.level = Math.min(this.settings.getMaxLevel(), this.level + 1);
+            this.threshold = Math.max(this.minThreshold, this.threshold / 2);
+        }
+
+        return this.level != previousLevel || this.threshold != previousThreshold;
+    }
+
+    private static int getPendingTasks(ChannelHandlerContext ctx) {
+        return ctx.channel().eventLoop() instanceof SingleThreadEventExecutor
+                ? ((SingleThreadEventExecutor) ctx.channel().eventLoop()).pendingTasks() : 0;
+    }
+}
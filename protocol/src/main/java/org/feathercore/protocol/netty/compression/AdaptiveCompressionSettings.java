@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty.compression;
+
+import lombok.Builder;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.zip.Deflater;
+
+/**
+ * Bounds and targets of {@link AdaptiveCompressionPolicy adaptive compression} shared by connections.
+ */
+@Value
+@Builder
+public class AdaptiveCompressionSettings {
+
+    /**
+     * Lowest compression level used under pressure
+     */
+    @Builder.Default int minLevel = Deflater.BEST_SPEED;
+
+    /**
+     * Highest compression level used when there is no pressure, this is also the initial level
+     */
+    @Builder.Default int maxLevel = 6;
+
+    /**
+     * Highest compression threshold used under pressure,
+     * the lowest one is the threshold negotiated with the client
+     */
+    @Builder.Default int maxThreshold = 8192;
+
+    /**
+     * Deflating time per input byte above which the connection is considered to be under pressure
+     */
+    @Builder.Default long targetNanosPerByte = 25;
+
+    /**
+     * Number of tasks pending in the connection's event loop above which it is considered to be under pressure
+     */
+    @Builder.Default int maxPendingTasks = 64;
+
+    /**
+     * Ratio of compressed to original size above which data is considered poorly compressible
+     * so that higher levels are not worth their cost
+     */
+    @Builder.Default double maxRatio = 0.9;
+
+    /**
+     * Number of frames between adjustments, frames sent without compression are counted as well
+     * so that the threshold raised under pressure is lowered back once frames are no longer compressed
+     */
+    @Builder.Default int window = 64;
+
+    /**
+     * Creates a new policy for a single connection.
+     *
+     * @param threshold compression threshold negotiated with the client
+     * @return created policy
+     */
+    @NotNull
+    public AdaptiveCompressionPolicy newPolicy(int threshold) {
+        return new AdaptiveCompressionPolicy(this, threshold);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty.compression;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+/**
+ * Implementation of the zlib compression used for frames of connections with compression enabled.
+ * Implementations other than the {@link #getDefault() default one} (e.g. JNI-backed ones) may be provided
+ * as services of this interface ({@code META-INF/services/org.feathercore.protocol.netty.compression.CompressionCodec})
+ * and should produce and accept the same zlib streams as {@link java.util.zip} so that the wire format is unchanged.
+ */
+public interface CompressionCodec {
+
+    /**
+     * Checks whether this codec may be used in the current environment (e.g. its native library is loaded).
+     *
+     * @return {@code true} if this codec is available and {@code false} otherwise
+     */
+    boolean isAvailable();
+
+    /**
+     * Creates a new deflater which should be {@link FrameDeflater#close() closed} once no longer needed.
+     *
+     * @param level initial compression level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return created deflater
+     */
+    @NotNull FrameDeflater newDeflater(int level);
+
+    /**
+     * Creates a new inflater which should be {@link FrameInflater#close() closed} once no longer needed.
+     *
+     * @return created inflater
+     */
+    @NotNull FrameInflater newInflater();
+
+    /**
+     * Gets the first available codec provided as a service falling back to the {@link #getDefault() default one}.
+     * The codec is only looked up once.
+     *
+     * @return the most efficient available codec
+     */
+    static CompressionCodec getNative() {
+        return CompressionCodecLoader.NATIVE;
+    }
+
+    /**
+     * Gets the codec based on {@link java.util.zip} which is always available.
+     *
+     * @return default codec
+     */
+    static CompressionCodec getDefault() {
+        return JdkCompressionCodec.INSTANCE;
+    }
+
+    /**
+     * Deflater of frames owned by a single channel.
+     */
+    interface FrameDeflater extends AutoCloseable {
+
+        /**
+         * Sets the compression level to use for the following frames.
+         *
+         * @param level compression level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+         * or {@link Deflater#DEFAULT_COMPRESSION}
+         */
+        void setLevel(int level);
+
+        /**
+         * Deflates all readable bytes of the input buffer as a complete zlib stream
+         * writing it to the output buffer which gets expanded as needed.
+         *
+         * @param in input buffer whose readable bytes get read
+         * @param out output buffer
+         */
+        void deflate(@NonNull ByteBuf in, @NonNull ByteBuf out);
+
+        /**
+         * Releases the resources of this deflater.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Inflater of frames owned by a single channel.
+     */
+    interface FrameInflater extends AutoCloseable {
+
+        /**
+         * Inflates all readable bytes of the input buffer being a complete zlib stream
+         * into the writable bytes of the output buffer which should exactly fit the inflated data.
+         *
+         * @param in input buffer whose readable bytes get read
+         * @param out output buffer
+         * @throws DataFormatException if the input is not a complete zlib stream
+         * or its inflated size differs from the number of writable bytes of the output buffer
+         */
+        void inflate(@NonNull ByteBuf in, @NonNull ByteBuf out) throws DataFormatException;
+
+        /**
+         * Releases the resources of this inflater.
+         */
+        @Override
+        void close();
+    }
+}
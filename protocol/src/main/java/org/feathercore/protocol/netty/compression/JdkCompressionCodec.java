@@ -0,0 +1,303 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.feathercore.protocol.netty.compression;
+
+import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec based on {@link Deflater} and {@link Inflater} streaming data straight between the buffers.
+ * {@link ByteBuffer} views of the buffers are used when {@link Deflater} and {@link Inflater} support them (Java 11+),
+ * otherwise the backing arrays of heap buffers are used and direct ones are streamed through a small chunk.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JdkCompressionCodec implements CompressionCodec {
+
+    public static final JdkCompressionCodec INSTANCE = new JdkCompressionCodec();
+
+    /**
+     * {@code Deflater#setInput(ByteBuffer)} which is only available since Java 11
+     */
+    @Nullable private static final MethodHandle DEFLATER_SET_INPUT;
+
+    /**
+     * {@code Deflater#deflate(ByteBuffer)} which is only available since Java 11
+     */
+    @Nullable private static final MethodHandle DEFLATE;
+
+    /**
+     * {@code Inflater#setInput(ByteBuffer)} which is only available since Java 11
+     */
+    @Nullable private static final MethodHandle INFLATER_SET_INPUT;
+
+    /**
+     * {@code Inflater#inflate(ByteBuffer)} which is only available since Java 11
+     */
+    @Nullable private static final MethodHandle INFLATE;
+
+    private static final int CHUNK_SIZE = 8192;
+
+    static {
+        MethodHandle deflaterSetInput, deflate, inflaterSetInput, inflate;
+        try {
+            deflaterSetInput = MethodHandles.publicLookup().findVirtual(
+                    Deflater.class, "setInput", MethodType.methodType(void.class, ByteBuffer.class)
+            );
+            deflate = MethodHandles.publicLookup().findVirtual(
+                    Deflater.class, "deflate", MethodType.methodType(int.class, ByteBuffer.class)
+            );
+            inflaterSetInput = MethodHandles.publicLookup().findVirtual(
+                    Inflater.class, "setInput", MethodType.methodType(void.class, ByteBuffer.class)
+            );
+            inflate = MethodHandles.publicLookup().findVirtual(
+                    Inflater.class, "inflate", MethodType.methodType(int.class, ByteBuffer.class)
+            );
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            deflaterSetInput = null;
+            deflate = null;
+            inflaterSetInput = null;
+            inflate = null;
+        }
+
+        DEFLATER_SET_INPUT = deflaterSetInput;
+        DEFLATE = deflate;
+        INFLATER_SET_INPUT = inflaterSetInput;
+        INFLATE = inflate;
+    }
+
+    /**
+     * Checks whether {@link Inflater} can inflate data straight into direct buffers,
+     * otherwise inflating into heap buffers avoids an intermediate copy.
+     *
+     * @return {@code true} if direct buffers should be preferred for inflated data and {@code false} otherwise
+     */
+    public static boolean isDirectInflationSupported() {
+        return INFLATE != null;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    @NotNull
+    public FrameDeflater newDeflater(final int level) {
+        return new JdkFrameDeflater(new Deflater(level));
+    }
+
+    @Override
+    @NotNull
+    public FrameInflater newInflater() {
+        return new JdkFrameInflater(new Inflater());
+    }
+
+    private static final class JdkFrameDeflater implements FrameDeflater {
+
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private final Deflater deflater;
+
+        private JdkFrameDeflater(Deflater deflater) {
+            this.deflater = deflater;
+        }
+
+        @Override
+        public void setLevel(int level) {
+            this.deflater.setLevel(level);
+        }
+
+        @Override
+        public void deflate(@NonNull ByteBuf in, @NonNull ByteBuf out) {
+            int size = in.readableBytes();
+            try {
+                if (DEFLATER_SET_INPUT != null && in.nioBufferCount() == 1) {
+                    setInput(in.nioBuffer());
+                    finish(out);
+                } else if (in.hasArray()) {
+                    this.deflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), size);
+                    finish(out);
+                } else {
+                    // stream the input through the chunk deflating it on the go
+                    int index = in.readerIndex();
+                    int end = index + size;
+                    while (index < end) {
+                        int length = Math.min(this.chunk.length, end - index);
+                        in.getBytes(index, this.chunk, 0, length);
+                        index += length;
+
+                        this.deflater.setInput(this.chunk, 0, length);
+                        while (!this.deflater.needsInput()) {
+                            deflate(out);
+                        }
+                    }
+                    finish(out);
+                }
+                in.skipBytes(size);
+            } finally {
+                this.deflater.reset();
+            }
+        }
+
+        @Override
+        public void close() {
+            this.deflater.end();
+        }
+
+        private void finish(ByteBuf out) {
+            this.deflater.finish();
+            while (!this.deflater.finished()) {
+                deflate(out);
+            }
+        }
+
+        /**
+         * Deflates the pending input right into the writable bytes of the output buffer.
+         *
+         * @param out output buffer
+         */
+        private void deflate(ByteBuf out) {
+            if (out.writableBytes() < 64) {
+                out.ensureWritable(Math.max(out.capacity(), 64));
+            }
+            int writerIndex = out.writerIndex();
+            int writable = out.writableBytes();
+
+            int deflated;
+            if (DEFLATE != null && out.nioBufferCount() == 1) {
+                deflated = deflate(out.internalNioBuffer(writerIndex, writable));
+            } else if (out.hasArray()) {
+                deflated = this.deflater.deflate(out.array(), out.arrayOffset() + writerIndex, writable);
+            } else {
+                deflated = this.deflater.deflate(this.buffer, 0, Math.min(this.buffer.length, writable));
+                out.setBytes(writerIndex, this.buffer, 0, deflated);
+            }
+            out.writerIndex(writerIndex + deflated);
+        }
+
+        @SneakyThrows
+        private void setInput(ByteBuffer input) {
+            DEFLATER_SET_INPUT.invokeExact(this.deflater, input);
+        }
+
+        @SneakyThrows
+        private int deflate(ByteBuffer output) {
+            return (int) DEFLATE.invokeExact(this.deflater, output);
+        }
+    }
+
+    private static final class JdkFrameInflater implements FrameInflater {
+
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        private final Inflater inflater;
+
+        private JdkFrameInflater(Inflater inflater) {
+            this.inflater = inflater;
+        }
+
+        @Override
+        public void inflate(@NonNull ByteBuf in, @NonNull ByteBuf out) throws DataFormatException {
+            int readable = in.readableBytes();
+            int size = out.writableBytes();
+            try {
+                if (INFLATER_SET_INPUT != null && in.nioBufferCount() == 1) {
+                    setInput(in.nioBuffer());
+                    inflateAvailable(out);
+                } else if (in.hasArray()) {
+                    this.inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), readable);
+                    inflateAvailable(out);
+                } else {
+                    // stream the input through the chunk inflating it on the go
+                    int index = in.readerIndex();
+                    int end = index + readable;
+                    while (index < end && !this.inflater.finished()) {
+                        int length = Math.min(this.chunk.length, end - index);
+                        in.getBytes(index, this.chunk, 0, length);
+                        index += length;
+
+                        this.inflater.setInput(this.chunk, 0, length);
+                        inflateAvailable(out);
+                    }
+                }
+
+                if (!this.inflater.finished() || out.isWritable()) {
+                    throw new DataFormatException("Inflated size differs from expected size of " + size);
+                }
+                in.skipBytes(readable);
+            } finally {
+                this.inflater.reset();
+            }
+        }
+
+        @Override
+        public void close() {
+            this.inflater.end();
+        }
+
+        /**
+         * Inflates the pending input right into the writable bytes of the output buffer
+         * until either the input or the output is exhausted.
+         *
+         * @param out output buffer
+         * @throws DataFormatException if the input is not a valid deflated data
+         */
+        private void inflateAvailable(ByteBuf out) throws DataFormatException {
+            while (out.isWritable() && !this.inflater.finished() && !this.inflater.needsInput()) {
+                int writerIndex = out.writerIndex();
+                int inflated;
+                if (INFLATE != null && out.nioBufferCount() == 1) {
+                    inflated = inflate(out.internalNioBuffer(writerIndex, out.writableBytes()));
+                } else if (out.hasArray()) {
+                    inflated = this.inflater.inflate(
+                            out.array(), out.arrayOffset() + writerIndex, out.writableBytes()
+                    );
+                } else {
+                    inflated = this.inflater.inflate(this.buffer, 0, Math.min(this.buffer.length, out.writableBytes()));
+                    out.setBytes(writerIndex, this.buffer, 0, inflated);
+                }
+
+                if (inflated == 0 && this.inflater.needsDictionary()) {
+                    throw new DataFormatException("Preset dictionaries are not supported");
+                }
+                out.writerIndex(writerIndex + inflated);
+            }
+        }
+
+        @SneakyThrows
+        private void setInput(ByteBuffer input) {
+            INFLATER_SET_INPUT.invokeExact(this.inflater, input);
+        }
+
+        @SneakyThrows
+        private int inflate(ByteBuffer output) throws DataFormatException {
+            return (int) INFLATE.invokeExact(this.inflater, output);
+        }
+    }
+}
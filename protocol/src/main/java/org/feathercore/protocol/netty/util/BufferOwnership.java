@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.util;
+
+import io.netty.buffer.ByteBuf;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks of buffers which may be modified in place by the handler they are passed to.
+ */
+@UtilityClass
+public class BufferOwnership {
+
+    /**
+     * Leak-aware wrappers created by allocators which share the memory and the reference count
+     * of the wrapped buffer (these classes are not public so they are looked up by name)
+     */
+    private final Set<Class<?>> LEAK_AWARE_WRAPPERS = findClasses(
+            "io.netty.buffer.SimpleLeakAwareByteBuf", "io.netty.buffer.AdvancedLeakAwareByteBuf",
+            "io.netty.buffer.SimpleLeakAwareCompositeByteBuf", "io.netty.buffer.AdvancedLeakAwareCompositeByteBuf"
+    );
+
+    /**
+     * Checks whether the buffer is exclusively owned by its holder so that its memory may be modified in place.
+     * Derived buffers (duplicates and slices) are never exclusively owned as they share the memory of their parents
+     * even if they have their own reference count (as pooled ones do), leak-aware wrappers are looked through.
+     *
+     * @param buffer buffer to check
+     * @return {@code true} if the buffer is exclusively owned and {@code false} otherwise
+     */
+    public boolean isExclusivelyOwned(@NonNull ByteBuf buffer) {
+        ByteBuf unwrapped = LEAK_AWARE_WRAPPERS.contains(buffer.getClass()) ? buffer.unwrap() : buffer;
+        return unwrapped.unwrap() == null && buffer.refCnt() == 1 && !buffer.isReadOnly();
+    }
+
+    private Set<Class<?>> findClasses(String... names) {
+        Set<Class<?>> classes = new HashSet<>();
+        for (String name : names) {
+            try {
+                classes.add(Class.forName(name, false, ByteBuf.class.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                // the wrapper does not exist in this version of Netty
+            }
+        }
+        return Collections.unmodifiableSet(classes);
+    }
+}
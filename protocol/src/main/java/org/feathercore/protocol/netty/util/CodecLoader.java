@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.util;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Loader of codecs (e.g. JNI-backed ones) provided as services of their interfaces.
+ */
+@UtilityClass
+public class CodecLoader {
+
+    /**
+     * Loads the first available codec provided as a service of the given interface.
+     * Broken codecs (e.g. those whose native library cannot be linked) are skipped.
+     *
+     * @param type interface of the codec
+     * @param available predicate checking whether the codec may be used in the current environment
+     * @param fallback supplier of the codec used if none of the provided ones is available
+     * @param <T> type of the codec
+     * @return the first available provided codec or the fallback one
+     */
+    public <T> T load(@NonNull final Class<T> type, @NonNull final Predicate<? super T> available,
+                      @NonNull final Supplier<? extends T> fallback) {
+        val codecs = ServiceLoader.load(type, type.getClassLoader()).iterator();
+        while (true) {
+            try {
+                if (!codecs.hasNext()) {
+                    break;
+                }
+
+                val codec = codecs.next();
+                if (available.test(codec)) {
+                    return codec;
+                }
+            } catch (final ServiceConfigurationError | LinkageError e) {
+                // the codec is broken (e.g. its native library cannot be linked) so the next one is tried
+            }
+        }
+
+        return fallback.get();
+    }
+}
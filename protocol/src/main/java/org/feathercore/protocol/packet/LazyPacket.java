@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.IllegalReferenceCountException;
+import lombok.NonNull;
+import org.feathercore.protocol.netty.NettyBuffer;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base for inbound packets whose fields are only parsed on first access.
+ * The decoder keeps a retained slice of the packet's body instead of {@link #read(org.feathercore.protocol.Buffer)
+ * reading} it so that packets which get cancelled or have no handler are released without being parsed.
+ * <p>
+ * Implementations should call {@link #ensureRead()} before accessing their fields (e.g. in every getter).
+ * The packet is released once it has been handled so handlers which keep it should either access it beforehand
+ * or {@link #retain()} it. A packet is not thread-safe and should only be accessed by one thread at a time.
+ */
+public abstract class LazyPacket extends AbstractReferenceCounted implements Packet {
+
+    /**
+     * Retained body of the packet which has not been read yet, released along with the packet
+     */
+    @Nullable private ByteBuf body;
+
+    /**
+     * Defers reading of the packet until its fields are accessed.
+     *
+     * @param body buffer whose readable bytes are the body of the packet and get skipped
+     */
+    public final void readLazily(@NonNull ByteBuf body) {
+        if (this.body != null) {
+            throw new IllegalStateException("Packet " + getClass().getName() + " has already been deferred");
+        }
+        this.body = body.readRetainedSlice(body.readableBytes());
+    }
+
+    /**
+     * Checks whether the fields of this packet have been read (or have never been deferred).
+     *
+     * @return {@code true} if the fields of this packet may be accessed without parsing them
+     */
+    public final boolean isRead() {
+        return this.body == null;
+    }
+
+    /**
+     * Reads the fields of this packet if it has not been done yet.
+     * If the reading fails then the body is kept so that every following access fails the same way
+     * instead of exposing partially read fields.
+     *
+     * @throws IllegalReferenceCountException if this packet has been released before being read
+     */
+    protected final void ensureRead() {
+        ByteBuf body = this.body;
+        if (body == null) {
+            return;
+        }
+        if (refCnt() == 0) {
+            throw new IllegalReferenceCountException(0);
+        }
+
+        // the body is detached while reading so that fields accessed by the reading itself are not read again
+        this.body = null;
+        int readerIndex = body.readerIndex();
+        NettyBuffer buffer = NettyBuffer.newInstance(body);
+        try {
+            read(buffer);
+        } catch (RuntimeException | Error e) {
+            this.body = body.readerIndex(readerIndex);
+            throw e;
+        } finally {
+            buffer.release();
+        }
+        body.release();
+    }
+
+    @Override
+    public LazyPacket retain() {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public LazyPacket touch(Object hint) {
+        if (this.body != null && refCnt() != 0) {
+            this.body.touch(hint);
+        }
+        return this;
+    }
+
+    @Override
+    protected void deallocate() {
+        // the body is kept so that accessing the unread packet fails instead of exposing empty fields
+        if (this.body != null) {
+            this.body.release();
+        }
+    }
+
+}
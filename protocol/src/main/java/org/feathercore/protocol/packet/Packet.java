@@ -16,6 +16,8 @@
 
 package org.feathercore.protocol.packet;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import org.feathercore.protocol.Buffer;
 import org.feathercore.protocol.netty.NettyBuffer;
@@ -36,13 +38,31 @@ public interface Packet {
 
     int getId();
 
+    /**
+     * Estimates the serialized size of this packet (its id and body) so that it may be written
+     * into a buffer of the right size. Packets whose size is easily known should override this,
+     * for others the size is learnt by the {@link PacketSizeEstimator} of their class.
+     *
+     * @return estimated size in bytes or a negative number if this packet does not estimate it
+     */
+    default int estimateSize() {
+        return -1;
+    }
+
+    /**
+     * Serializes the id and the body of this packet into a new array.
+     * Connections backed by Netty write packets straight into the channel's buffers instead.
+     *
+     * @return serialized packet
+     */
     default byte[] serialize() {
-        NettyBuffer buffer = NettyBuffer.newInstance(Unpooled.buffer(128)); //TODO capacity
-        buffer.writeVarInt(getId());
-        write(buffer);
+        ByteBuf handle = Unpooled.buffer(PacketSizeEstimator.estimateSize(this));
+        NettyBuffer buffer = NettyBuffer.newInstance(handle);
         try {
-            buffer.readerIndex(0);
-            return buffer.readByteArray(buffer.readableBytes());
+            buffer.writeVarInt(getId());
+            write(buffer);
+            PacketSizeEstimator.recordSize(this, handle.readableBytes());
+            return ByteBufUtil.getBytes(handle);
         } finally {
             buffer.release();
         }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.packet;
+
+import lombok.NonNull;
+
+/**
+ * Estimator of the serialized size (id and body) of packets of a single type
+ * learning it as an exponential moving average of the sizes of the packets serialized so far
+ * so that buffers for the following packets may be allocated at the right size at once.
+ * <p>
+ * Estimators are shared by all threads and updated without synchronization
+ * as an occasionally lost sample only makes the estimate slightly less precise.
+ */
+public final class PacketSizeEstimator {
+
+    /**
+     * Estimate used until the first size gets recorded
+     */
+    public static final int DEFAULT_SIZE = 128;
+
+    /**
+     * Maximal estimate which is the maximal size of a frame
+     */
+    public static final int MAX_SIZE = (1 << 21) - 1;
+
+    /**
+     * Number of fractional bits of the fixed-point average
+     */
+    private static final int SCALE_SHIFT = 4;
+
+    /**
+     * Weight of a new sample being {@code 1 / 2^WEIGHT_SHIFT}
+     */
+    private static final int WEIGHT_SHIFT = 3;
+
+    private static final ClassValue<PacketSizeEstimator> ESTIMATORS = new ClassValue<PacketSizeEstimator>() {
+        @Override
+        protected PacketSizeEstimator computeValue(Class<?> type) {
+            return new PacketSizeEstimator();
+        }
+    };
+
+    /**
+     * Fixed-point average of the recorded sizes or {@code -1} if none have been recorded yet
+     */
+    private volatile int scaledAverage = -1;
+
+    private PacketSizeEstimator() {
+    }
+
+    /**
+     * Gets the estimator of packets of the given class.
+     *
+     * @param type class of the packets
+     * @return estimator of the packets' size
+     */
+    public static PacketSizeEstimator of(@NonNull Class<? extends Packet> type) {
+        return ESTIMATORS.get(type);
+    }
+
+    /**
+     * Estimates the serialized size of the packet using its {@link Packet#estimateSize() own estimate}
+     * or the estimator of its class if it does not provide one.
+     *
+     * @param packet packet to serialize
+     * @return estimated size of the packet in bytes
+     */
+    public static int estimateSize(@NonNull Packet packet) {
+        int size = packet.estimateSize();
+        return size >= 0 ? Math.min(size, MAX_SIZE) : of(packet.getClass()).estimate();
+    }
+
+    /**
+     * Records the actual serialized size of the packet in the estimator of its class.
+     *
+     * @param packet serialized packet
+     * @param size size of the serialized packet in bytes
+     */
+    public static void recordSize(@NonNull Packet packet, int size) {
+        of(packet.getClass()).record(size);
+    }
+
+    /**
+     * Estimates the size of the next packet which is the average size with a quarter of it as headroom
+     * so that packets slightly larger than the average still fit.
+     *
+     * @return estimated size in bytes
+     */
+    public int estimate() {
+        int scaledAverage = this.scaledAverage;
+        if (scaledAverage < 0) {
+            return DEFAULT_SIZE;
+        }
+
+        int average = (scaledAverage + (1 << SCALE_SHIFT) - 1) >>> SCALE_SHIFT;
+        return Math.min(average + (average >>> 2), MAX_SIZE);
+    }
+
+    /**
+     * Records the size of a serialized packet.
+     *
+     * @param size size in bytes
+     */
+    public void record(int size) {
+        int scaledSize = Math.max(0, Math.min(size, MAX_SIZE)) << SCALE_SHIFT;
+        int scaledAverage = this.scaledAverage;
+        this.scaledAverage = scaledAverage < 0
+                ? scaledSize
+                : scaledAverage + ((scaledSize - scaledAverage) >> WEIGHT_SHIFT);
+    }
+
+}
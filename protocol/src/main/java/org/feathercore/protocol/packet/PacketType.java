@@ -52,6 +52,15 @@ public class PacketType<P extends Packet> {
         this.supplier = supplier;
     }
 
+    /**
+     * Gets the estimator of the serialized size of packets of this type.
+     *
+     * @return estimator of the packets' size
+     */
+    public PacketSizeEstimator getSizeEstimator() {
+        return PacketSizeEstimator.of(this.type);
+    }
+
     public static <P extends Packet> PacketType<P> create(@NonNull final Class<P> type,
                                                              @NonNull final Supplier<P> supplier) {
         return new PacketType<>(type, supplier);
@@ -41,6 +41,7 @@ public abstract class AbstractPacketRegistry<P extends Packet> implements Packet
         @Nullable @NonFinal Consumer<Connection> attachListener;
         @Nullable @NonFinal Consumer<Connection> detachListener;
         @Nullable @NonFinal BiConsumer<Connection, Throwable> exceptionHandler;
+        @NonNull @NonFinal HandlerExecutionPolicy handlerExecution = HandlerExecutionPolicy.inline();
         @NonNull Map<Integer, BiConsumer<Connection, Packet>> packetHandlers;
 
         protected Builder(@NonNull final Collection<PacketType<? extends P>> packetTypes) {
@@ -53,11 +54,15 @@ public abstract class AbstractPacketRegistry<P extends Packet> implements Packet
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public <T extends P> PacketRegistry.Builder addPacket(@NonNull final PacketType<T> packetType,
                                                               @Nullable final BiConsumer<Connection, T> handler) {
             packetTypes.removeIf(type -> type.getId() == packetType.getId());
             packetHandlers.remove(packetType.getId());
             packetTypes.add(packetType);
+            if (handler != null) {
+                packetHandlers.put(packetType.getId(), (BiConsumer<Connection, Packet>) handler);
+            }
 
             return this;
         }
@@ -111,6 +116,12 @@ public abstract class AbstractPacketRegistry<P extends Packet> implements Packet
             return this;
         }
 
+        @Override
+        public PacketRegistry.Builder handlerExecution(@NonNull final HandlerExecutionPolicy policy) {
+            this.handlerExecution = policy;
+            return this;
+        }
+
         @Override
         public Collection<@NonNull PacketType<? extends P>> getPackets() {
             return packetTypesView;
@@ -16,16 +16,19 @@
 
 package org.feathercore.protocol.registry;
 
+import io.netty.util.ReferenceCountUtil;
 import lombok.NonNull;
 import lombok.ToString;
 import lombok.val;
 import org.feathercore.protocol.Connection;
+import org.feathercore.protocol.exception.PacketHandleException;
 import org.feathercore.protocol.packet.Packet;
 import org.feathercore.protocol.packet.PacketType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -37,19 +40,33 @@ public class ArrayBasedPacketRegistry<P extends Packet> extends AbstractPacketRe
 
     private final PacketType[] types;
     private final BiConsumer<Connection, Packet>[] handlers;
+    /**
+     * Bitmap of IDs of the packets which have handlers
+     */
+    private final long[] handledIds;
+    private final AtomicLongArray droppedPackets;
     private final Consumer<Connection> attachListener;
     private final Consumer<Connection> detachListener;
     private final BiConsumer<Connection, Throwable> exceptionHandler;
+    private final HandlerExecutionPolicy handlerExecution;
 
     protected ArrayBasedPacketRegistry(@NonNull final Collection<PacketType<? extends P>> types,
                                      Map<Integer, BiConsumer<Connection, Packet>> handlers,
                                        Consumer<Connection> attachListener, Consumer<Connection> detachListener,
                                        BiConsumer<Connection, Throwable> exceptionHandler) {
+        this(types, handlers, attachListener, detachListener, exceptionHandler, HandlerExecutionPolicy.inline());
+    }
+
+    protected ArrayBasedPacketRegistry(@NonNull final Collection<PacketType<? extends P>> types,
+                                       Map<Integer, BiConsumer<Connection, Packet>> handlers,
+                                       Consumer<Connection> attachListener, Consumer<Connection> detachListener,
+                                       BiConsumer<Connection, Throwable> exceptionHandler,
+                                       @NonNull final HandlerExecutionPolicy handlerExecution) {
         this.types = new PacketType[types
                 .stream()
                 .mapToInt(PacketType::getId)
                 .max()
-                .orElse(0)
+                .orElse(-1) + 1
                 ];
 
         for (val type : types) {
@@ -57,12 +74,21 @@ public class ArrayBasedPacketRegistry<P extends Packet> extends AbstractPacketRe
         }
 
         //noinspection unchecked
-        this.handlers = new BiConsumer[handlers.keySet().stream().mapToInt(i -> i).max().orElse(0)];
+        this.handlers = new BiConsumer[handlers.keySet().stream().mapToInt(i -> i).max().orElse(-1) + 1];
         handlers.forEach((id, handler) -> this.handlers[id] = handler);
 
+        this.handledIds = new long[(this.handlers.length + 63) >>> 6];
+        for (int id = 0; id < this.handlers.length; id++) {
+            if (this.handlers[id] != null) {
+                this.handledIds[id >>> 6] |= 1L << id;
+            }
+        }
+        this.droppedPackets = new AtomicLongArray(this.types.length);
+
         this.attachListener = attachListener;
         this.detachListener = detachListener;
         this.exceptionHandler = exceptionHandler;
+        this.handlerExecution = handlerExecution;
     }
 
     @Override
@@ -71,11 +97,68 @@ public class ArrayBasedPacketRegistry<P extends Packet> extends AbstractPacketRe
         return id < 0 || id >= this.types.length ? null : this.types[id];
     }
 
+    @Override
+    public boolean hasHandler(final int id) {
+        return id >= 0 && id >>> 6 < this.handledIds.length && (this.handledIds[id >>> 6] & 1L << id) != 0;
+    }
+
+    @Override
+    public void packetDropped(final int id) {
+        if (id >= 0 && id < this.droppedPackets.length()) {
+            this.droppedPackets.incrementAndGet(id);
+        }
+    }
+
+    @Override
+    public long getDroppedPackets(final int id) {
+        return id < 0 || id >= this.droppedPackets.length() ? 0 : this.droppedPackets.get(id);
+    }
+
+    @Override
+    public long getDroppedPackets() {
+        long dropped = 0;
+        for (int id = 0; id < this.droppedPackets.length(); id++) {
+            dropped += this.droppedPackets.get(id);
+        }
+        return dropped;
+    }
+
     @Override
     public void handlePacket(@NotNull final Connection connection, @NotNull final Packet packet) {
-        val handler = this.handlers[packet.getId()];
-        if (handler != null) {
+        val id = packet.getId();
+        val handler = id < 0 || id >= this.handlers.length ? null : this.handlers[id];
+        if (handler == null) {
+            return;
+        }
+        if (this.handlerExecution.isInline()) {
             handler.accept(connection, packet);
+            return;
+        }
+
+        // the packet is released by the caller once this method returns
+        ReferenceCountUtil.retain(packet);
+        try {
+            this.handlerExecution.execute(connection, () -> {
+                try {
+                    handler.accept(connection, packet);
+                } catch (Throwable t) {
+                    handleFailure(connection, new PacketHandleException(packet.getClass().getSimpleName(), t));
+                } finally {
+                    ReferenceCountUtil.release(packet);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            ReferenceCountUtil.release(packet);
+            throw e;
+        }
+    }
+
+    private void handleFailure(final Connection connection, final Throwable t) {
+        if (this.exceptionHandler != null) {
+            this.exceptionHandler.accept(connection, t);
+        } else {
+            val thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
         }
     }
 
@@ -118,7 +201,7 @@ public class ArrayBasedPacketRegistry<P extends Packet> extends AbstractPacketRe
 
         @Override
         public PacketRegistry<P> build() {
-            return new ArrayBasedPacketRegistry<>(super.packetTypes, super.packetHandlers, this.attachListener, this.detachListener, this.exceptionHandler);
+            return new ArrayBasedPacketRegistry<>(super.packetTypes, super.packetHandlers, this.attachListener, this.detachListener, this.exceptionHandler, this.handlerExecution);
         }
     }
 
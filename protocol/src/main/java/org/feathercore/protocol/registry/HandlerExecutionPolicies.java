@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.registry;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.feathercore.protocol.Connection;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Holder of the shared instances of {@link HandlerExecutionPolicy}.
+ */
+@UtilityClass
+class HandlerExecutionPolicies {
+
+    final HandlerExecutionPolicy INLINE = new HandlerExecutionPolicy() {
+        @Override
+        public void execute(@NonNull Connection connection, @NonNull Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public boolean isInline() {
+            return true;
+        }
+    };
+
+    final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private ExecutorService createDefaultExecutor() {
+        try {
+            // Executors#newVirtualThreadPerTaskExecutor() which is only available since Java 21
+            return (ExecutorService) MethodHandles.publicLookup().findStatic(
+                    Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class)
+            ).invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return Executors.newCachedThreadPool(new DefaultThreadFactory("packet-handler", true));
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.registry;
+
+import lombok.NonNull;
+import org.feathercore.protocol.Connection;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Policy of execution of packet handlers of a {@link PacketRegistry}.
+ * Handlers are executed {@link #inline() inline} on the event loop of the connection by default,
+ * other policies move them off the event loop so that heavy handlers do not stall other connections.
+ * <p>
+ * Packets handled off the event loop are {@link io.netty.util.ReferenceCounted#retain() retained}
+ * until their handler returns and failures of such handlers are passed to the registry's exception handler
+ * (or to the uncaught exception handler of the thread if there is none) as the connection is not closed by them.
+ *
+ * @apiNote handlers executed off the event loop run while the connection keeps decoding the following packets,
+ * so they should not change the state of the connection's pipeline themselves: switching the packet registry
+ * (see {@link org.feathercore.protocol.netty.NettyConnection#changePacketRegistry(PacketRegistry)}),
+ * enabling encryption or changing the compression threshold would race with packets being decoded meanwhile.
+ * Such changes should be submitted to the event loop of the connection's channel instead,
+ * handlers of registries doing them (e.g. login ones) should be executed {@link #inline() inline}.
+ */
+@FunctionalInterface
+public interface HandlerExecutionPolicy {
+
+    /**
+     * Executes the handler of a packet received by the connection.
+     *
+     * @param connection connection which has received the packet
+     * @param task task invoking the handler which handles its failures itself and never throws
+     * @throws java.util.concurrent.RejectedExecutionException if the task can not be accepted for execution
+     */
+    void execute(@NonNull Connection connection, @NonNull Runnable task);
+
+    /**
+     * Checks whether handlers are executed by the calling thread right away.
+     *
+     * @return {@code true} if the handlers are executed inline and {@code false} otherwise
+     */
+    default boolean isInline() {
+        return false;
+    }
+
+    /**
+     * Gets the policy executing handlers on the event loop of the connection right when the packet is received.
+     *
+     * @return inline policy
+     */
+    static HandlerExecutionPolicy inline() {
+        return HandlerExecutionPolicies.INLINE;
+    }
+
+    /**
+     * Creates a policy executing handlers by the executor one by one for each connection
+     * so that packets of the same connection are handled in the order they have been received.
+     *
+     * @param executor executor shared by all connections
+     * @return created policy
+     */
+    static HandlerExecutionPolicy serial(@NonNull Executor executor) {
+        return new SerialHandlerExecutionPolicy(executor);
+    }
+
+    /**
+     * Creates a policy executing handlers by the {@link #getDefaultExecutor() default executor}
+     * one by one for each connection.
+     *
+     * @return created policy
+     * @see #serial(Executor)
+     */
+    static HandlerExecutionPolicy serial() {
+        return serial(getDefaultExecutor());
+    }
+
+    /**
+     * Creates a policy executing handlers by the executor concurrently
+     * so that packets of the same connection may be handled in any order.
+     *
+     * @param executor executor shared by all connections
+     * @return created policy
+     */
+    static HandlerExecutionPolicy shared(@NonNull Executor executor) {
+        return (connection, task) -> executor.execute(task);
+    }
+
+    /**
+     * Creates a policy executing handlers by the {@link #getDefaultExecutor() default executor} concurrently.
+     *
+     * @return created policy
+     * @see #shared(Executor)
+     */
+    static HandlerExecutionPolicy shared() {
+        return shared(getDefaultExecutor());
+    }
+
+    /**
+     * Gets the executor starting a virtual thread per handler (Java 21+)
+     * or, if virtual threads are not available, a cached pool of daemon threads.
+     * The executor is only created once.
+     *
+     * @return default executor of handlers
+     */
+    static Executor getDefaultExecutor() {
+        return HandlerExecutionPolicies.DEFAULT_EXECUTOR;
+    }
+}
@@ -57,6 +57,45 @@ public interface PacketRegistry<P extends Packet> {
         return type == null ? null : type.getSupplier().get();
     }
 
+    /**
+     * Checks whether packets of the given ID are handled by this registry.
+     * Packets without a handler are not read (if they are {@link org.feathercore.protocol.packet.LazyPacket lazy})
+     * unless some listener accesses them.
+     *
+     * @param id identifier of the packet
+     * @return {@code true} if there is a handler of packets of the specified ID and {@code false} otherwise
+     */
+    default boolean hasHandler(final int id) {
+        return true;
+    }
+
+    /**
+     * Records that a packet of the given ID has been dropped by the decoder without being read
+     * because there is no handler of it.
+     *
+     * @param id identifier of the packet
+     */
+    default void packetDropped(final int id) {}
+
+    /**
+     * Gets the number of dropped packets of the given ID.
+     *
+     * @param id identifier of the packet
+     * @return number of packets of the specified ID {@link #packetDropped(int) dropped} so far
+     */
+    default long getDroppedPackets(final int id) {
+        return 0;
+    }
+
+    /**
+     * Gets the number of dropped packets of all IDs.
+     *
+     * @return number of packets {@link #packetDropped(int) dropped} so far
+     */
+    default long getDroppedPackets() {
+        return 0;
+    }
+
     void handlePacket(@NotNull Connection connection, @NotNull Packet packet);
 
     void registryAttached(@NonNull Connection connection);
@@ -87,8 +126,9 @@ public interface PacketRegistry<P extends Packet> {
          * @apiNote if a packet is already registered by this ID and direction then it should be overridden
          */
         default <T extends P> Builder addPacket(@NonNull PacketType<T> packetType, @Nullable Consumer<T> handler) {
-            //noinspection ConstantConditions
-            return addPacket(packetType, (connection, packet) -> handler.accept(packet));
+            return addPacket(packetType, handler == null
+                    ? (BiConsumer<Connection, T>) null
+                    : (connection, packet) -> handler.accept(packet));
         }
 
         /**
@@ -156,6 +196,14 @@ public interface PacketRegistry<P extends Packet> {
          */
         Builder detachListener(@Nullable Consumer<Connection> listener);
 
+        /**
+         * Sets the policy of execution of packet handlers, {@link HandlerExecutionPolicy#inline()} by default.
+         *
+         * @param policy policy of execution of handlers
+         * @return self for chaining
+         */
+        Builder handlerExecution(@NonNull HandlerExecutionPolicy policy);
+
         /**
          * Sets registry uncaught exception handler
          *
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.registry;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.feathercore.protocol.Connection;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Policy executing handlers of each connection one by one on a shared executor.
+ * Each connection with pending handlers has a queue whose head is the handler being executed,
+ * the queue is drained by a single task of the executor and removed once empty
+ * so that no state is kept for idle or closed connections.
+ */
+@RequiredArgsConstructor
+class SerialHandlerExecutionPolicy implements HandlerExecutionPolicy {
+
+    private final Executor executor;
+    /**
+     * Queues of pending handlers accessed only under the lock of their mapping
+     */
+    final ConcurrentMap<Connection, Queue<Runnable>> queues = new ConcurrentHashMap<>();
+
+    @Override
+    public void execute(@NonNull Connection connection, @NonNull Runnable task) {
+        boolean[] idle = new boolean[1];
+        this.queues.compute(connection, (key, queue) -> {
+            if (queue == null) {
+                idle[0] = true;
+                queue = new ArrayDeque<>();
+            }
+            queue.add(task);
+            return queue;
+        });
+
+        if (idle[0]) {
+            try {
+                this.executor.execute(() -> drain(connection, task));
+            } catch (RejectedExecutionException e) {
+                this.queues.remove(connection);
+                throw e;
+            }
+        }
+    }
+
+    private void drain(Connection connection, Runnable first) {
+        Runnable[] next = {first};
+        while (next[0] != null) {
+            // tasks handle failures of their handlers themselves (see HandlerExecutionPolicy#execute)
+            next[0].run();
+
+            this.queues.computeIfPresent(connection, (key, queue) -> {
+                queue.poll();
+                next[0] = queue.peek();
+                return next[0] == null ? null : queue;
+            });
+        }
+    }
+}
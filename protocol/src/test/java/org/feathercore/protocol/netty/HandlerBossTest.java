@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.concurrent.Future;
+import org.apache.logging.log4j.LogManager;
+import org.feathercore.eventbus.EventManager;
+import org.feathercore.protocol.Buffer;
+import org.feathercore.protocol.Connection;
+import org.feathercore.protocol.event.PacketReceiveEvent;
+import org.feathercore.protocol.netty.codec.InboundPacketDecoder;
+import org.feathercore.protocol.packet.LazyPacket;
+import org.feathercore.protocol.packet.Packet;
+import org.feathercore.protocol.packet.PacketType;
+import org.feathercore.protocol.registry.ArrayBasedPacketRegistry;
+import org.feathercore.protocol.registry.PacketRegistry;
+import org.feathercore.protocol.server.BaseServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class HandlerBossTest {
+
+    private final List<IntPacket> packets = new ArrayList<>();
+    private final List<Integer> handled = new ArrayList<>();
+
+    private BaseServer server;
+    private EmbeddedChannel channel;
+    private Consumer<PacketReceiveEvent> listener;
+
+    @AfterEach
+    void tearDown() {
+        if (listener != null) {
+            EventManager.getGlobal().unregister(listener);
+        }
+        channel.finishAndReleaseAll();
+    }
+
+    // Stub of a lazily read inbound packet
+    public static class IntPacket extends LazyPacket {
+
+        public static final int ID = 1;
+
+        private int value;
+
+        @Override
+        public void read(@NotNull final Buffer buffer) {
+            value = buffer.readInt();
+        }
+
+        public int getValue() {
+            ensureRead();
+            return value;
+        }
+
+        @Override
+        public int getId() {
+            return ID;
+        }
+    }
+
+    /**
+     * Creates a channel which decodes and handles packets of the registry.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private PacketRegistry<?> newChannel(final BiConsumer<Connection, IntPacket> handler) {
+        final PacketRegistry<?> registry = (PacketRegistry<?>) ArrayBasedPacketRegistry.Builder.create()
+                .addPacket(PacketType.create(IntPacket.class, () -> {
+                    final IntPacket packet = new IntPacket();
+                    packets.add(packet);
+                    return packet;
+                }), (BiConsumer) handler)
+                .build();
+        server = new BaseServer("localhost", 0) {
+            @Override
+            public Future<Void> start() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Future<Void> stop() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void onConnected(@NotNull final Connection connection) {}
+
+            @Override
+            public void onDisconnected(@NotNull final Connection connection) {}
+
+            @Override
+            public @NotNull PacketRegistry<? extends Packet> getInitialPacketRegistry() {
+                return (PacketRegistry<? extends Packet>) registry;
+            }
+        };
+        channel = new EmbeddedChannel(
+                new InboundPacketDecoder(), new HandlerBoss(new SoftReference<>(server), LogManager.getLogger())
+        );
+
+        return registry;
+    }
+
+    private void listen(final boolean cancel) {
+        listener = event -> event.setCancelled(cancel);
+        EventManager.getGlobal().register(PacketReceiveEvent.class, listener);
+    }
+
+    private static ByteBuf frame(final int value) {
+        return Unpooled.buffer().writeByte(IntPacket.ID).writeInt(value);
+    }
+
+    @Test
+    void testHandledPacketReleased() {
+        newChannel((connection, packet) -> handled.add(packet.getValue()));
+
+        final ByteBuf frame = frame(42);
+        channel.writeInbound(frame);
+        assertThat(handled, contains(42));
+        assertThat(packets, hasSize(1));
+        assertThat(packets.get(0).refCnt(), is(0));
+        assertThat(frame.refCnt(), is(0));
+    }
+
+    @Test
+    void testCancelledPacketReleasedUnread() {
+        newChannel((connection, packet) -> handled.add(packet.getValue()));
+        listen(true);
+
+        final ByteBuf frame = frame(42);
+        channel.writeInbound(frame);
+        assertThat(handled, is(empty()));
+        assertThat(packets, hasSize(1));
+        assertThat(packets.get(0).isRead(), is(false));
+        assertThat(packets.get(0).refCnt(), is(0));
+        assertThat(frame.refCnt(), is(0));
+    }
+
+    @Test
+    void testUnhandledPacketReleasedUnread() {
+        newChannel(null);
+        listen(false);
+
+        final ByteBuf frame = frame(42);
+        channel.writeInbound(frame);
+        assertThat(packets, hasSize(1));
+        assertThat(packets.get(0).isRead(), is(false));
+        assertThat(packets.get(0).refCnt(), is(0));
+        assertThat(frame.refCnt(), is(0));
+    }
+
+    @Test
+    void testUnobservedPacketDroppedBeforeAllocation() {
+        final PacketRegistry<?> registry = newChannel(null);
+
+        final ByteBuf frame = frame(42);
+        channel.writeInbound(frame);
+        assertThat(packets, is(empty()));
+        assertThat(registry.getDroppedPackets(IntPacket.ID), is(1L));
+        assertThat(frame.refCnt(), is(0));
+    }
+}
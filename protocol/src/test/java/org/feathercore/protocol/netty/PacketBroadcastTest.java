@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.feathercore.protocol.Buffer;
+import org.feathercore.protocol.netty.cipher.CipherCodec;
+import org.feathercore.protocol.netty.cipher.CipherCodec.StreamCipher;
+import org.feathercore.protocol.netty.codec.InboundDecoder;
+import org.feathercore.protocol.netty.codec.OutboundEncoder;
+import org.feathercore.protocol.packet.Packet;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class PacketBroadcastTest {
+
+    private static final SecretKey KEY = new SecretKeySpec(new byte[]{
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16
+    }, "AES");
+
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (EmbeddedChannel channel : channels) {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    // Stub of an outbound packet
+    private static class PayloadPacket implements Packet {
+
+        private final byte[] payload = new byte[100];
+
+        private PayloadPacket() {
+            Arrays.fill(payload, (byte) 42);
+        }
+
+        @Override
+        public void write(@NotNull final Buffer buffer) {
+            buffer.writeBytes(payload);
+        }
+
+        @Override
+        public int getId() {
+            return 1;
+        }
+    }
+
+    /**
+     * Creates a connection of a channel whose pipeline only splits and prepends frames.
+     */
+    private NettyConnection newConnection() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline()
+                .addLast("splitter", new InboundDecoder())
+                .addLast("prepender", new OutboundEncoder())
+                .addLast("handler_boss", new ChannelInboundHandlerAdapter());
+        channels.add(channel);
+
+        return new NettyConnection(channel.pipeline().context("handler_boss"));
+    }
+
+    private static byte[] decrypt(final ByteBuf encrypted) throws Exception {
+        final StreamCipher decryptor = CipherCodec.getDefault().newDecryptor(KEY);
+        try {
+            final byte[] decrypted = new byte[encrypted.readableBytes()];
+            decryptor.update(encrypted.nioBuffer(), ByteBuffer.wrap(decrypted));
+            return decrypted;
+        } finally {
+            decryptor.close();
+            encrypted.release();
+        }
+    }
+
+    @Test
+    void testBroadcastToEncryptedConnections() throws Exception {
+        final NettyConnection first = newConnection();
+        final NettyConnection second = newConnection();
+        first.enableEncryption(KEY, CipherCodec.getDefault());
+        second.enableEncryption(KEY, CipherCodec.getDefault());
+
+        final PacketBroadcast broadcast = new PacketBroadcast(new PayloadPacket());
+        try {
+            final byte[] frame = ByteBufUtil.getBytes(broadcast.getFrame(-1));
+
+            first.write(broadcast);
+            second.write(broadcast);
+
+            // each connection encrypts its own copy of the shared frame
+            assertThat(decrypt(channels.get(0).readOutbound()), is(frame));
+            assertThat(decrypt(channels.get(1).readOutbound()), is(frame));
+            assertThat(ByteBufUtil.getBytes(broadcast.getFrame(-1)), is(frame));
+        } finally {
+            broadcast.release();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import org.feathercore.protocol.netty.compression.CompressionCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecompressorTest {
+
+    private static final int THRESHOLD = 64;
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(
+            new Decompressor(THRESHOLD, CompressionCodec.getDefault())
+    );
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Creates a compressed frame declaring the given size of the inflated data.
+     */
+    private static ByteBuf compressedFrame(final int declaredSize, final byte[] data) {
+        final Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        final byte[] deflated = new byte[data.length + 64];
+        final int length = deflater.deflate(deflated);
+        deflater.end();
+
+        final ByteBuf frame = Unpooled.buffer();
+        int value = declaredSize;
+        while ((value & -128) != 0) {
+            frame.writeByte(value & 127 | 128);
+            value >>>= 7;
+        }
+        return frame.writeByte(value).writeBytes(deflated, 0, length);
+    }
+
+    @Test
+    void testInflatedIntoBufferOfExactSize() {
+        final byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) 7);
+
+        channel.writeInbound(compressedFrame(data.length, data));
+        final ByteBuf inflated = channel.readInbound();
+        try {
+            assertThat(inflated.capacity(), is(data.length));
+            assertThat(inflated.maxCapacity(), is(data.length));
+            assertThat(ByteBufUtil.getBytes(inflated), is(data));
+        } finally {
+            inflated.release();
+        }
+    }
+
+    @Test
+    void testInflatedSizeDiffersFromDeclaredOne() {
+        final byte[] data = new byte[1000];
+
+        final DecoderException exception = assertThrows(
+                DecoderException.class, () -> channel.writeInbound(compressedFrame(data.length + 1, data))
+        );
+        assertThat(exception.getCause(), is(instanceOf(DataFormatException.class)));
+    }
+
+    @Test
+    void testUncompressedFramePassedThrough() {
+        final byte[] data = {1, 2, 3};
+
+        channel.writeInbound(Unpooled.buffer().writeByte(0).writeBytes(data));
+        final ByteBuf frame = channel.readInbound();
+        try {
+            assertThat(ByteBufUtil.getBytes(frame), is(data));
+        } finally {
+            frame.release();
+        }
+    }
+}
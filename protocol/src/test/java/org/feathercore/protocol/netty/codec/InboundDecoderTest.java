@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.feathercore.protocol.packet.exception.WrongPacketSizeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InboundDecoderTest {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new InboundDecoder());
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Creates a body of the given length filled with its indexes.
+     */
+    private static byte[] body(final int length) {
+        final byte[] body = new byte[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) i;
+        }
+        return body;
+    }
+
+    private void assertFrame(final byte[] expected) {
+        final ByteBuf frame = channel.readInbound();
+        try {
+            assertThat(ByteBufUtil.getBytes(frame), is(expected));
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    void testSplitHeader() {
+        final byte[] body = body(200);
+
+        // the length of 200 takes two bytes of the varint header
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[]{(byte) 0xC8}));
+        assertThat(channel.readInbound(), is(nullValue()));
+
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[]{0x01}, body));
+        assertFrame(body);
+        assertThat(channel.readInbound(), is(nullValue()));
+    }
+
+    @Test
+    void testSplitBody() {
+        final byte[] body = body(100);
+
+        channel.writeInbound(Unpooled.buffer().writeByte(100).writeBytes(body, 0, 40));
+        assertThat(channel.readInbound(), is(nullValue()));
+
+        channel.writeInbound(Unpooled.wrappedBuffer(body, 40, 59));
+        assertThat(channel.readInbound(), is(nullValue()));
+
+        channel.writeInbound(Unpooled.wrappedBuffer(body, 99, 1));
+        assertFrame(body);
+    }
+
+    @Test
+    void testMultipleFramesInOneRead() {
+        final byte[] first = body(3);
+        final byte[] second = body(130);
+
+        // an empty frame in between is skipped
+        channel.writeInbound(Unpooled.wrappedBuffer(
+                new byte[]{3}, first, new byte[]{0}, new byte[]{(byte) 0x82, 0x01}, second
+        ));
+        assertFrame(first);
+        assertFrame(second);
+        assertThat(channel.readInbound(), is(nullValue()));
+    }
+
+    @Test
+    void testHeaderExceedingMaximalSize() {
+        assertThrows(WrongPacketSizeException.class, () -> channel.writeInbound(
+                Unpooled.wrappedBuffer(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01})
+        ));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ResourceLeakDetector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+class OutboundEncoderTest {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new OutboundEncoder());
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Reads the outbound frame checking that it consists of the varint header followed by the body.
+     */
+    private ByteBuf readFrame(final byte[] header, final byte[] body) {
+        final ByteBuf frame = channel.readOutbound();
+        final byte[] expected = new byte[header.length + body.length];
+        System.arraycopy(header, 0, expected, 0, header.length);
+        System.arraycopy(body, 0, expected, header.length, body.length);
+        assertThat(ByteBufUtil.getBytes(frame), is(expected));
+
+        return frame;
+    }
+
+    @Test
+    void testReservedHeaderWrittenInPlace() {
+        final byte[] body = {1, 2, 3, 4, 5};
+        final ByteBuf buffer = OutboundEncoder.allocateFrame(ByteBufAllocator.DEFAULT, body.length).writeBytes(body);
+
+        channel.writeOutbound(buffer);
+        final ByteBuf frame = readFrame(new byte[]{5}, body);
+        try {
+            // the header is written right before the body without composing or copying the frame
+            assertThat(frame, is(sameInstance(buffer)));
+            assertThat(frame.readerIndex(), is(OutboundEncoder.MAX_HEADER_SIZE - 1));
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    void testReservedHeaderOfLongerFrame() {
+        final byte[] body = new byte[300];
+        final ByteBuf buffer = OutboundEncoder.allocateFrame(ByteBufAllocator.DEFAULT, body.length).writeBytes(body);
+
+        channel.writeOutbound(buffer);
+        final ByteBuf frame = readFrame(new byte[]{(byte) 0xAC, 0x02}, body);
+        try {
+            assertThat(frame, is(sameInstance(buffer)));
+            assertThat(frame.readerIndex(), is(OutboundEncoder.MAX_HEADER_SIZE - 2));
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    void testPrependLength() {
+        final byte[] body = {1, 2, 3};
+        final ByteBuf buffer = OutboundEncoder.allocateFrame(ByteBufAllocator.DEFAULT, body.length).writeBytes(body);
+        try {
+            OutboundEncoder.prependLength(buffer);
+            assertThat(ByteBufUtil.getBytes(buffer), is(new byte[]{3, 1, 2, 3}));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    void testDerivedBufferNotWrittenInto() {
+        final byte[] body = {1, 2, 3};
+        final ByteBuf buffer = OutboundEncoder.allocateFrame(PooledByteBufAllocator.DEFAULT, body.length)
+                .writeBytes(body);
+        try {
+            // a pooled duplicate has its own reference count but shares the memory of the buffer
+            final ByteBuf duplicate = buffer.retainedDuplicate();
+            assertThat(duplicate.refCnt(), is(1));
+
+            channel.writeOutbound(duplicate);
+            final ByteBuf frame = readFrame(new byte[]{3}, body);
+            try {
+                assertThat(frame, is(instanceOf(CompositeByteBuf.class)));
+                assertThat(buffer.getByte(buffer.readerIndex() - 1), is((byte) 0));
+            } finally {
+                frame.release();
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    void testLeakAwareBufferWrittenInPlace() {
+        final ResourceLeakDetector.Level level = ResourceLeakDetector.getLevel();
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        try {
+            final byte[] body = {1, 2, 3};
+            final ByteBuf buffer = OutboundEncoder.allocateFrame(PooledByteBufAllocator.DEFAULT, body.length)
+                    .writeBytes(body);
+            assertThat(buffer.unwrap(), is(notNullValue()));
+
+            channel.writeOutbound(buffer);
+            final ByteBuf frame = readFrame(new byte[]{3}, body);
+            try {
+                assertThat(frame, is(sameInstance(buffer)));
+            } finally {
+                frame.release();
+            }
+        } finally {
+            ResourceLeakDetector.setLevel(level);
+        }
+    }
+
+    @Test
+    void testHeaderComposedWithoutReservedSpace() {
+        final byte[] body = {1, 2, 3};
+
+        channel.writeOutbound(Unpooled.wrappedBuffer(body));
+        final ByteBuf frame = readFrame(new byte[]{3}, body);
+        try {
+            assertThat(frame, is(instanceOf(CompositeByteBuf.class)));
+        } finally {
+            frame.release();
+        }
+    }
+}
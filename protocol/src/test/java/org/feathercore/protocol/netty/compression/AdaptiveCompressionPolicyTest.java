@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.netty.compression;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class AdaptiveCompressionPolicyTest {
+
+    private static final int WINDOW = 4;
+    private static final int THRESHOLD = 256;
+    private static final int SIZE = 1000;
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    private final ChannelHandlerContext ctx = channel.pipeline().firstContext();
+
+    private final AdaptiveCompressionPolicy policy = AdaptiveCompressionSettings.builder()
+            .minLevel(1)
+            .maxLevel(6)
+            .maxThreshold(1024)
+            .targetNanosPerByte(25)
+            .maxRatio(0.9)
+            .window(WINDOW)
+            .build()
+            .newPolicy(THRESHOLD);
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Records a window of compressed frames checking that the policy is only adjusted by the last one.
+     */
+    private boolean recordCompressedWindow(final int compressedSize, final long nanosPerByte) {
+        for (int i = 1; i < WINDOW; i++) {
+            assertThat(policy.recordCompressed(ctx, SIZE, compressedSize, nanosPerByte * SIZE), is(false));
+        }
+        return policy.recordCompressed(ctx, SIZE, compressedSize, nanosPerByte * SIZE);
+    }
+
+    @Test
+    void testSlowDeflatingLowersLevelAndRaisesThreshold() {
+        assertThat(recordCompressedWindow(SIZE / 4, 100), is(true));
+        assertThat(policy.getLevel(), is(5));
+        assertThat(policy.getThreshold(), is(512));
+
+        assertThat(recordCompressedWindow(SIZE / 4, 100), is(true));
+        assertThat(policy.getLevel(), is(4));
+        assertThat(policy.getThreshold(), is(1024));
+
+        // the bounds of the settings are never exceeded
+        for (int i = 0; i < 5; i++) {
+            recordCompressedWindow(SIZE / 4, 100);
+        }
+        assertThat(policy.getLevel(), is(1));
+        assertThat(policy.getThreshold(), is(1024));
+    }
+
+    @Test
+    void testFastDeflatingRestoresLevelAndThreshold() {
+        recordCompressedWindow(SIZE / 4, 100);
+        recordCompressedWindow(SIZE / 4, 100);
+
+        assertThat(recordCompressedWindow(SIZE / 4, 1), is(true));
+        assertThat(policy.getLevel(), is(5));
+        assertThat(policy.getThreshold(), is(512));
+
+        assertThat(recordCompressedWindow(SIZE / 4, 1), is(true));
+        assertThat(policy.getLevel(), is(6));
+        assertThat(policy.getThreshold(), is(THRESHOLD));
+
+        // the threshold never gets lower than the negotiated one
+        assertThat(recordCompressedWindow(SIZE / 4, 1), is(false));
+        assertThat(policy.getThreshold(), is(THRESHOLD));
+    }
+
+    @Test
+    void testPoorRatioLowersLevelOnly() {
+        assertThat(recordCompressedWindow(SIZE * 95 / 100, 20), is(true));
+        assertThat(policy.getLevel(), is(5));
+        assertThat(policy.getThreshold(), is(THRESHOLD));
+    }
+
+    @Test
+    void testUncompressedFramesCountedInWindow() {
+        recordCompressedWindow(SIZE / 4, 100);
+        assertThat(policy.getThreshold(), is(512));
+
+        // frames below the raised threshold are sent uncompressed which costs no deflating time
+        for (int i = 1; i < WINDOW; i++) {
+            assertThat(policy.recordUncompressed(ctx, 300), is(false));
+        }
+        assertThat(policy.recordUncompressed(ctx, 300), is(true));
+        assertThat(policy.getLevel(), is(6));
+        assertThat(policy.getThreshold(), is(THRESHOLD));
+    }
+
+    @Test
+    void testNegotiatedThresholdResetsCurrentOne() {
+        recordCompressedWindow(SIZE / 4, 100);
+
+        policy.setMinThreshold(128);
+        assertThat(policy.getMinThreshold(), is(128));
+        assertThat(policy.getThreshold(), is(128));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.packet;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+import org.feathercore.protocol.Buffer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LazyPacketTest {
+
+    // Stub of a lazily read packet counting its reads
+    private static class IntPacket extends LazyPacket {
+
+        private int value;
+        private int reads;
+
+        @Override
+        public void read(@NotNull final Buffer buffer) {
+            reads++;
+            value = buffer.readInt();
+        }
+
+        public int getValue() {
+            ensureRead();
+            return value;
+        }
+
+        @Override
+        public int getId() {
+            return 0;
+        }
+    }
+
+    @Test
+    void testReadOnFirstAccess() {
+        final ByteBuf body = Unpooled.buffer().writeInt(42);
+        final IntPacket packet = new IntPacket();
+
+        packet.readLazily(body);
+        assertThat(body.isReadable(), is(false));
+        assertThat(packet.isRead(), is(false));
+        assertThat(packet.reads, is(0));
+
+        assertThat(packet.getValue(), is(42));
+        assertThat(packet.getValue(), is(42));
+        assertThat(packet.isRead(), is(true));
+        assertThat(packet.reads, is(1));
+
+        // the retained body is released once read
+        assertThat(body.refCnt(), is(1));
+        assertThat(packet.release(), is(true));
+        body.release();
+    }
+
+    @Test
+    void testFailedReadRethrown() {
+        final ByteBuf body = Unpooled.buffer().writeShort(42);
+        final IntPacket packet = new IntPacket();
+
+        packet.readLazily(body);
+        assertThrows(IndexOutOfBoundsException.class, packet::getValue);
+        assertThrows(IndexOutOfBoundsException.class, packet::getValue);
+        assertThat(packet.isRead(), is(false));
+        assertThat(packet.reads, is(2));
+
+        assertThat(packet.release(), is(true));
+        assertThat(body.refCnt(), is(1));
+        body.release();
+    }
+
+    @Test
+    void testReleasedUnread() {
+        final ByteBuf body = Unpooled.buffer().writeInt(42);
+        final IntPacket packet = new IntPacket();
+
+        packet.readLazily(body);
+        assertThat(body.refCnt(), is(2));
+        assertThat(packet.release(), is(true));
+        assertThat(body.refCnt(), is(1));
+
+        assertThrows(IllegalReferenceCountException.class, packet::getValue);
+        assertThat(packet.reads, is(0));
+        body.release();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.registry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.feathercore.protocol.Buffer;
+import org.feathercore.protocol.Connection;
+import org.feathercore.protocol.exception.PacketHandleException;
+import org.feathercore.protocol.packet.LazyPacket;
+import org.feathercore.protocol.packet.PacketType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArrayBasedPacketRegistryTest {
+
+    private final List<Runnable> submitted = new ArrayList<>();
+    private final Executor executor = submitted::add;
+
+    // Stub of a lazily read inbound packet
+    public static class IntPacket extends LazyPacket {
+
+        public static final int ID = 1;
+
+        private int value;
+
+        @Override
+        public void read(@NotNull final Buffer buffer) {
+            value = buffer.readInt();
+        }
+
+        public int getValue() {
+            ensureRead();
+            return value;
+        }
+
+        @Override
+        public int getId() {
+            return ID;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static PacketRegistry<?> newRegistry(final BiConsumer<Connection, IntPacket> handler,
+                                                 final BiConsumer<Connection, Throwable> exceptionHandler,
+                                                 final HandlerExecutionPolicy policy) {
+        return (PacketRegistry<?>) ArrayBasedPacketRegistry.Builder.create()
+                .addPacket(PacketType.create(IntPacket.class, IntPacket::new), (BiConsumer) handler)
+                .exceptionHandler(exceptionHandler)
+                .handlerExecution(policy)
+                .build();
+    }
+
+    private static IntPacket packet(final ByteBuf body) {
+        final IntPacket packet = new IntPacket();
+        packet.readLazily(body);
+        return packet;
+    }
+
+    /**
+     * Runs the submitted tasks on another thread as the handlers would be run off the event loop.
+     */
+    private void runSubmitted() throws InterruptedException {
+        final Thread thread = new Thread(() -> submitted.forEach(Runnable::run));
+        thread.start();
+        thread.join();
+    }
+
+    @Test
+    void testLazyPacketRetainedUntilHandledOffLoop() throws InterruptedException {
+        final List<Integer> handled = new ArrayList<>();
+        final PacketRegistry<?> registry = newRegistry(
+                (connection, packet) -> handled.add(packet.getValue()), null, HandlerExecutionPolicy.serial(executor)
+        );
+
+        final ByteBuf body = Unpooled.buffer().writeInt(42);
+        final IntPacket packet = packet(body);
+        registry.handlePacket(new StubConnection(), packet);
+        // the caller releases the packet right after passing it to the registry
+        assertThat(packet.release(), is(false));
+
+        runSubmitted();
+        assertThat(handled, contains(42));
+        assertThat(packet.refCnt(), is(0));
+        assertThat(body.refCnt(), is(1));
+        body.release();
+    }
+
+    @Test
+    void testLazyPacketReleasedWhenHandlerFails() throws InterruptedException {
+        final IllegalStateException failure = new IllegalStateException("handler failure");
+        final AtomicReference<Throwable> caught = new AtomicReference<>();
+        final PacketRegistry<?> registry = newRegistry(
+                (connection, packet) -> {
+                    throw failure;
+                }, (connection, t) -> caught.set(t), HandlerExecutionPolicy.shared(executor)
+        );
+
+        final ByteBuf body = Unpooled.buffer().writeInt(42);
+        final IntPacket packet = packet(body);
+        registry.handlePacket(new StubConnection(), packet);
+        packet.release();
+
+        runSubmitted();
+        assertThat(caught.get(), is(instanceOf(PacketHandleException.class)));
+        assertThat(caught.get().getCause(), is(failure));
+        assertThat(packet.refCnt(), is(0));
+        assertThat(body.refCnt(), is(1));
+        body.release();
+    }
+
+    @Test
+    void testLazyPacketReleasedWhenRejected() {
+        final PacketRegistry<?> registry = newRegistry(
+                (connection, packet) -> packet.getValue(), null, HandlerExecutionPolicy.shared(task -> {
+                    throw new RejectedExecutionException();
+                })
+        );
+
+        final ByteBuf body = Unpooled.buffer().writeInt(42);
+        final IntPacket packet = packet(body);
+        assertThrows(RejectedExecutionException.class, () -> registry.handlePacket(new StubConnection(), packet));
+        assertThat(packet.refCnt(), is(1));
+        assertThat(packet.release(), is(true));
+        assertThat(body.refCnt(), is(1));
+        body.release();
+    }
+}
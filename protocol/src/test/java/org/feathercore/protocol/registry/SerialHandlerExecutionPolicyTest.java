@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.registry;
+
+import org.feathercore.protocol.Connection;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SerialHandlerExecutionPolicyTest {
+
+    private static final int TASKS = 10000;
+
+    @Test
+    void testPerConnectionOrder() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final SerialHandlerExecutionPolicy policy = new SerialHandlerExecutionPolicy(executor);
+
+        final List<Connection> connections = new ArrayList<>();
+        final List<List<Integer>> handled = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            connections.add(new StubConnection());
+            // each list is only accessed by the task being executed for its connection
+            handled.add(new ArrayList<>());
+        }
+
+        for (int task = 0; task < TASKS; task++) {
+            for (int i = 0; i < connections.size(); i++) {
+                final List<Integer> connectionHandled = handled.get(i);
+                final int value = task;
+                policy.execute(connections.get(i), () -> connectionHandled.add(value));
+            }
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS), is(true));
+        for (final List<Integer> connectionHandled : handled) {
+            assertThat(connectionHandled.size(), is(TASKS));
+            for (int task = 0; task < TASKS; task++) {
+                assertThat(connectionHandled.get(task), is(task));
+            }
+        }
+    }
+
+    @Test
+    void testQueueRemovedWhenDrained() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final SerialHandlerExecutionPolicy policy = new SerialHandlerExecutionPolicy(submitted::add);
+        final Connection connection = new StubConnection();
+        final List<String> handled = new ArrayList<>();
+
+        policy.execute(connection, () -> handled.add("first"));
+        policy.execute(connection, () -> handled.add("second"));
+        // only the first handler of an idle connection submits a task draining its queue
+        assertThat(submitted.size(), is(1));
+        assertThat(policy.queues.get(connection).size(), is(2));
+
+        submitted.get(0).run();
+        assertThat(handled, contains("first", "second"));
+        assertThat(policy.queues.isEmpty(), is(true));
+
+        // the connection is idle again so that the next handler submits a new task
+        policy.execute(connection, () -> handled.add("third"));
+        assertThat(submitted.size(), is(2));
+        submitted.get(1).run();
+        assertThat(handled, contains("first", "second", "third"));
+        assertThat(policy.queues.isEmpty(), is(true));
+    }
+
+    @Test
+    void testRejectedExecutionRolledBack() {
+        final List<Runnable> submitted = new ArrayList<>();
+        final boolean[] rejecting = {true};
+        final SerialHandlerExecutionPolicy policy = new SerialHandlerExecutionPolicy(task -> {
+            if (rejecting[0]) {
+                throw new RejectedExecutionException();
+            }
+            submitted.add(task);
+        });
+        final Connection connection = new StubConnection();
+        final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+
+        assertThrows(RejectedExecutionException.class, () -> policy.execute(connection, () -> handled.add("rejected")));
+        assertThat(policy.queues.isEmpty(), is(true));
+
+        // the rejected handler does not keep the connection busy
+        rejecting[0] = false;
+        policy.execute(connection, () -> handled.add("accepted"));
+        assertThat(submitted.size(), is(1));
+        submitted.get(0).run();
+        assertThat(handled, contains("accepted"));
+        assertThat(policy.queues.isEmpty(), is(true));
+    }
+}
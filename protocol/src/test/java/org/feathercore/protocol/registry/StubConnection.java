@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Feather Core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.feathercore.protocol.registry;
+
+import io.netty.channel.ChannelFuture;
+import lombok.NonNull;
+import org.feathercore.protocol.Connection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Connection stub which only identifies the connection packets are handled for.
+ */
+class StubConnection implements Connection {
+
+    @Override
+    public void write(@NotNull final byte[] bytes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ChannelFuture writeFuture(@NonNull final byte[] bytes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public boolean isActive() {
+        return true;
+    }
+
+    @Override
+    public boolean isEncrypted() {
+        return false;
+    }
+
+    @Override
+    public @Nullable ChannelFuture disconnect() {
+        return null;
+    }
+}